@@ -0,0 +1,131 @@
+package hello.itemservice.domain.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ItemRepository 저장소별 save, findById, findAll, findPage, update 처리량.
+ * 스레드 수(1, 4, 코어 수)마다 하위 클래스로 나누어 실행한다.
+ *
+ * ./gradlew jmh
+ * 특정 벤치마크만: ./gradlew jmh -Pjmh.includes=ItemRepositoryBenchmark.FourThreads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ItemRepositoryBenchmark {
+
+    @Param({"memory", "columnar", "persistent", "caching"})
+    String type;
+
+    @Param({"1000", "100000", "1000000"})
+    int catalogSize;
+
+    ItemRepository itemRepository;
+    Path dataDir;
+    long firstId;
+    final AtomicLong nameSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        itemRepository = createRepository();
+        itemRepository.clearStore();
+        for (int i = 0; i < catalogSize; i++) {
+            Item item = itemRepository.save(new Item(nextName(), 1000 + i % 1_000_000, i % 10_000));
+            if (i == 0) {
+                firstId = item.getId();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        itemRepository.clearStore();
+        if (itemRepository instanceof PersistentItemRepository) {
+            ((PersistentItemRepository) itemRepository).close();
+        }
+    }
+
+    @Benchmark
+    public Item save() {
+        return itemRepository.save(new Item(nextName(), 10000, 10));
+    }
+
+    @Benchmark
+    public Item findById() {
+        return itemRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Item> findAll() {
+        return itemRepository.findAll();
+    }
+
+    @Benchmark
+    public ItemPage findPage() {
+        return itemRepository.findPage(randomId(), null, ItemRepository.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public boolean update() {
+        long id = randomId();
+        return itemRepository.update(id, new Item("updated" + id, 20000, 20));
+    }
+
+    private long randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(catalogSize);
+    }
+
+    private String nextName() {
+        return "item" + nameSequence.incrementAndGet();
+    }
+
+    private ItemRepository createRepository() throws IOException {
+        switch (type) {
+            case "columnar":
+                return new ColumnarItemRepository();
+            case "persistent":
+                dataDir = Files.createTempDirectory("item-benchmark");
+                return new PersistentItemRepository(dataDir, false, 100_000);
+            case "caching":
+                return new CachingItemRepository(new MemoryItemRepository(), Math.max(catalogSize / 10, 1));
+            default:
+                return new MemoryItemRepository();
+        }
+    }
+
+    @Threads(1)
+    public static class OneThread extends ItemRepositoryBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends ItemRepositoryBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class MaxThreads extends ItemRepositoryBenchmark {
+    }
+}
@@ -0,0 +1,82 @@
+package hello.itemservice.domain.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PersistentItemRepository 재시작(복구) 시간. WAL만 있는 경우와 snapshot이 있는 경우를 비교한다.
+ * 기록당 추가 비용은 ItemRepositoryBenchmark.save(type=memory, persistent)로 확인한다.
+ *
+ * ./gradlew jmh -Pjmh.includes=PersistentItemRepositoryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PersistentItemRepositoryBenchmark {
+
+    @Param({"wal", "snapshot"})
+    String source;
+
+    @Param({"10000", "200000"})
+    int itemCount;
+
+    Path dataDir;
+    PersistentItemRepository itemRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("item-recovery-benchmark");
+        PersistentItemRepository repository = new PersistentItemRepository(dataDir, false, Long.MAX_VALUE);
+        repository.clearStore();
+        for (int i = 0; i < itemCount; i++) {
+            repository.save(new Item("item" + i, 10000, 10));
+        }
+        if ("snapshot".equals(source)) {
+            repository.snapshot();
+        }
+        repository.close();
+    }
+
+    //메모리(static store)만 비운다.
+    @Setup(Level.Invocation)
+    public void clearMemory() {
+        new MemoryItemRepository().clearStore();
+    }
+
+    @Benchmark
+    public PersistentItemRepository recover() {
+        itemRepository = new PersistentItemRepository(dataDir, false, Long.MAX_VALUE);
+        return itemRepository;
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() {
+        itemRepository.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try (PersistentItemRepository repository = new PersistentItemRepository(dataDir, false, Long.MAX_VALUE)) {
+            repository.clearStore();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package hello.itemservice.message;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 오류 메시지를 반복해서 만들 때 비용.
+ * 스프링 기본 ResourceBundleMessageSource와 PrecompiledMessageSource를 비교한다. 결과가 같은지는 MessageSourceTest에서 확인한다.
+ *
+ * ./gradlew jmh -Pjmh.includes=MessageSourceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageSourceBenchmark {
+
+    @Param({"resourceBundle", "precompiled"})
+    String source;
+
+    MessageSource messageSource;
+    Object[] args = {"1,000", "1,000,000"};
+
+    @Setup
+    public void setUp() {
+        if ("precompiled".equals(source)) {
+            messageSource = new PrecompiledMessageSource(StandardCharsets.UTF_8, "messages", "errors");
+            return;
+        }
+        ResourceBundleMessageSource bundleMessageSource = new ResourceBundleMessageSource();
+        bundleMessageSource.setBasenames("messages", "errors");
+        bundleMessageSource.setDefaultEncoding("UTF-8");
+        bundleMessageSource.setFallbackToSystemLocale(false);
+        messageSource = bundleMessageSource;
+    }
+
+    @Benchmark
+    public String getMessage() {
+        return messageSource.getMessage("range.item.price", args, Locale.KOREA);
+    }
+}
@@ -0,0 +1,66 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.domain.item.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.DefaultMessageCodesResolver;
+import org.springframework.validation.MessageCodesResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잘못된 상품 등록 요청이 몰릴 때 메시지 코드 생성 비용.
+ * DefaultMessageCodesResolver와 CachingMessageCodesResolver를 비교한다.
+ *
+ * ./gradlew jmh -Pjmh.includes=MessageCodesResolverBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class MessageCodesResolverBenchmark {
+
+    @Param({"default", "caching"})
+    String resolver;
+
+    MessageCodesResolver messageCodesResolver;
+    ItemRules itemRules;
+
+    @Setup
+    public void setUp() {
+        messageCodesResolver = "caching".equals(resolver)
+                ? new CachingMessageCodesResolver(1024)
+                : new DefaultMessageCodesResolver();
+        itemRules = new ItemRules(new ItemRuleProperties());
+    }
+
+    //검증 오류 하나의 메시지 코드 생성
+    @Benchmark
+    public String[] resolveFieldError() {
+        return messageCodesResolver.resolveMessageCodes("range", "item", "price", Integer.class);
+    }
+
+    //모든 필드와 복합 룰이 실패한 등록 요청 하나의 검증
+    @Benchmark
+    public BeanPropertyBindingResult invalidFormPost() {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new Item(" ", 10, 10000), "item");
+        bindingResult.setMessageCodesResolver(messageCodesResolver);
+        itemRules.validate(" ", 10, 10000, bindingResult);
+        itemRules.validateTotalPrice(1, 1, bindingResult);
+        return bindingResult;
+    }
+}
@@ -0,0 +1,67 @@
+package hello.itemservice.web.validation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validation;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 등록 API(/validation/api/items/add)의 검증 오류 응답 직렬화 비용.
+ * FieldError 전체를 직렬화할 때와 ErrorsJsonSerializer(field, code, message)로 기록할 때를 비교한다.
+ * 응답 크기는 ValidationApiControllerTest.compareErrorPayload에서 확인한다.
+ *
+ * ./gradlew jmh -Pjmh.includes=ErrorPayloadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPayloadBenchmark {
+
+    ObjectMapper objectMapper;
+    BeanPropertyBindingResult bindingResult;
+
+    @Setup
+    public void setUp() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasenames("messages", "errors");
+        messageSource.setDefaultEncoding("UTF-8");
+        objectMapper = new ObjectMapper()
+                .registerModule(new SimpleModule().addSerializer(new ErrorsJsonSerializer(new ApiErrorWriter(messageSource))));
+
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName("");
+        form.setPrice(10);
+        form.setQuantity(10000);
+        bindingResult = new BeanPropertyBindingResult(form, "itemSaveForm");
+        new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator()).validate(form, bindingResult);
+    }
+
+    @Benchmark
+    public byte[] fieldErrors() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bindingResult.getAllErrors());
+    }
+
+    @Benchmark
+    public byte[] errorsJsonSerializer() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bindingResult);
+    }
+}
@@ -15,9 +15,13 @@ public class TestDataInit {
 
     /**
      * 테스트용 데이터 추가
+     * 저장소에 이미 상품이 있다면(파일에서 복구된 경우) 추가하지 않는다.
      */
     @PostConstruct
     public void init() {
+        if (!itemRepository.findPage(null, null, 1).getItems().isEmpty()) {
+            return;
+        }
         itemRepository.save(new Item("itemA", 10000, 10));
         itemRepository.save(new Item("itemB", 20000, 20));
     }
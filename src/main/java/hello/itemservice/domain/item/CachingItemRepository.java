@@ -0,0 +1,270 @@
+package hello.itemservice.domain.item;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 다른 저장소를 감싸서 단건 조회(findById) 결과를 최대 maximumSize개 까지 메모리에 보관하는 저장소.
+ * 캐시에 없으면 감싼 저장소에서 읽어 보관하고(read-through), 저장/수정은 감싼 저장소에 먼저 반영한 뒤 캐시에도 반영한다(write-through).
+ *
+ * 조회는 ConcurrentHashMap에서 lock 없이 읽고 참조 표시(referenced)만 남긴다.
+ * 가득 차면 CLOCK(second chance) 방식으로 내보낸다. 캐시에 들어온 순서대로 돌면서 참조 표시가 있는 상품은 표시만 지우고 뒤로 보내고,
+ * 마지막으로 지나간 뒤 조회되지 않은 상품을 내보낸다. 내보내기만 lock을 잡으므로 조회끼리는 경쟁하지 않는다.
+ *
+ * 캐시에서 빠진 상품을 읽는 동안 다른 스레드가 수정하면 읽은 값은 이미 오래된 값일 수 있다. 이때 캐시에 비교할 version이 남아있지 않으므로,
+ * 수정할 때마다 상품 id 구간별 수정 번호(writeStamps)를 올리고, 읽기 전과 번호가 달라졌다면 읽은 값을 캐시에 넣지 않는다.
+ *
+ * 이 캐시는 heap보다 큰 상품 목록을 위한 것이 아니다. 감쌀 수 있는 저장소(memory, columnar, persistent)는 모두 전체 상품을 heap에 둔다.
+ * 조회할 때마다 열(column)에서 Item을 새로 만드는 columnar 저장소에서 자주 조회되는 상품의 객체를 재사용하는 용도이고,
+ * Map에서 바로 꺼내는 memory, persistent 저장소에는 이득이 없다.
+ * item.repository.cache.maximum-size 로 사용한다. (ItemRepositoryConfig)
+ */
+public class CachingItemRepository implements ItemRepository, AutoCloseable {
+
+    private final ItemRepository delegate;
+    private final int maximumSize;
+
+    private final ConcurrentHashMap<Long, Entry> cache = new ConcurrentHashMap<>();
+    //CLOCK의 순서. 캐시에 있는 상품마다 Entry 하나가 들어있다. (수정되면 같은 Entry의 item만 바꾼다.)
+    private final ConcurrentLinkedQueue<Entry> clock = new ConcurrentLinkedQueue<>();
+    private final Object evictionLock = new Object();
+
+    //상품 id 구간별 수정 번호. 같은 구간의 다른 상품이 수정되어도 캐시에 넣지 않을 뿐 결과는 같다.
+    private static final int WRITE_STAMP_STRIPES = 1024;
+    //수정 번호를 확인하지 않는 경우(저장, 수정한 값)
+    private static final long NO_STAMP = -1;
+    private final AtomicLongArray writeStamps = new AtomicLongArray(WRITE_STAMP_STRIPES);
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public CachingItemRepository(ItemRepository delegate, int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize는 1 이상이어야 합니다. maximumSize=" + maximumSize);
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public Item save(Item item) {
+        Item savedItem = delegate.save(item);
+        //호출한 쪽에서 item을 나중에 수정해도 캐시에 영향이 없도록 복사해서 보관한다.
+        cacheIfNewer(copy(savedItem), NO_STAMP);
+        return savedItem;
+    }
+
+    @Override
+    public Item saveUniqueName(Item item) {
+        Item savedItem = delegate.saveUniqueName(item);
+        cacheIfNewer(copy(savedItem), NO_STAMP);
+        return savedItem;
+    }
+
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        List<Item> savedItems = delegate.saveAll(items);
+        for (Item savedItem : savedItems) {
+            cacheIfNewer(copy(savedItem), NO_STAMP);
+        }
+        return savedItems;
+    }
+
+    @Override
+    public List<Integer> saveAllUniqueName(List<Item> items) {
+        List<Integer> duplicates = delegate.saveAllUniqueName(items);
+        if (duplicates.isEmpty()) {
+            for (Item savedItem : items) {
+                cacheIfNewer(copy(savedItem), NO_STAMP);
+            }
+        }
+        return duplicates;
+    }
+
+    @Override
+    public Item findById(Long id) {
+        Entry entry = cache.get(id);
+        if (entry != null) {
+            entry.touch();
+            hitCount.increment();
+            return entry.item;
+        }
+
+        missCount.increment();
+        long stamp = writeStamps.get(stripe(id));
+        Item item = delegate.findById(id);
+        if (item != null) {
+            cacheIfNewer(item, stamp);
+        }
+        return item;
+    }
+
+    @Override
+    public boolean existsByItemName(String itemName) {
+        return delegate.existsByItemName(itemName);
+    }
+
+    @Override
+    public List<Item> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public ItemPage findPage(Long after, Long before, int size) {
+        return delegate.findPage(after, before, size);
+    }
+
+    /**
+     * 수정에 성공하면 저장소의 현재 값을 다시 읽어 캐시에 반영한다.
+     * 수정 전에 읽은 값이 뒤늦게 캐시에 들어오더라도 version이 낮으므로 덮어쓰지 못하고,
+     * 그 사이 캐시에서 빠졌다면 수정 번호가 달라졌으므로 다시 넣지 못한다.
+     */
+    @Override
+    public boolean update(Long itemId, Item updateParam) {
+        if (!delegate.update(itemId, updateParam)) {
+            return false;
+        }
+        cacheCurrent(itemId);
+        return true;
+    }
+
+    @Override
+    public boolean updateUniqueName(Long itemId, Item updateParam) {
+        if (!delegate.updateUniqueName(itemId, updateParam)) {
+            return false;
+        }
+        cacheCurrent(itemId);
+        return true;
+    }
+
+    private void cacheCurrent(Long itemId) {
+        writeStamps.incrementAndGet(stripe(itemId));
+        Item updatedItem = delegate.findById(itemId);
+        if (updatedItem != null) {
+            cacheIfNewer(updatedItem, NO_STAMP);
+        }
+    }
+
+    @Override
+    public List<Item> search(ItemSearchCond cond, int limit) {
+        return delegate.search(cond, limit);
+    }
+
+    @Override
+    public long modificationCount() {
+        return delegate.modificationCount();
+    }
+
+    @Override
+    public long generation() {
+        return delegate.generation();
+    }
+
+    @Override
+    public void clearStore() {
+        delegate.clearStore();
+        synchronized (evictionLock) {
+            cache.clear();
+            clock.clear();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 이미 같거나 더 높은 version이 캐시에 있다면 무시한다.
+     * stamp는 저장소에서 읽기 전의 수정 번호이고, 그 사이 수정되었다면 캐시에 없는 상품을 새로 넣지 않는다.
+     */
+    private void cacheIfNewer(Item item, long stamp) {
+        Entry created = new Entry(item.getId(), item);
+        Entry entry = cache.compute(item.getId(), (id, cached) -> {
+            if (cached == null) {
+                return stamp == NO_STAMP || writeStamps.get(stripe(id)) == stamp ? created : null;
+            }
+            if (cached.item.getVersion() < item.getVersion()) {
+                cached.item = item;
+            }
+            return cached;
+        });
+        if (entry == created) {
+            clock.offer(created);
+            if (cache.size() > maximumSize) {
+                evict();
+            }
+        }
+    }
+
+    private void evict() {
+        synchronized (evictionLock) {
+            while (cache.size() > maximumSize) {
+                Entry entry = clock.poll();
+                if (entry == null) {
+                    return;
+                }
+                if (cache.get(entry.id) != entry) {
+                    continue; //clearStore로 이미 빠진 상품
+                }
+                if (entry.referenced) {
+                    entry.referenced = false;
+                    clock.offer(entry);
+                } else if (cache.remove(entry.id, entry)) {
+                    evictionCount.increment();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        final Long id;
+        volatile Item item;
+        //마지막으로 시계 바늘이 지나간 뒤 조회되었는지. 조회가 많아도 이미 표시되어 있으면 쓰지 않는다.
+        volatile boolean referenced;
+
+        Entry(Long id, Item item) {
+            this.id = id;
+            this.item = item;
+        }
+
+        void touch() {
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (WRITE_STAMP_STRIPES - 1);
+    }
+
+    private static Item copy(Item item) {
+        Item copy = new Item(item.getItemName(), item.getPrice(), item.getQuantity());
+        copy.setId(item.getId());
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,437 @@
+package hello.itemservice.domain.item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 수백만 건의 상품을 적은 메모리로 보관하기 위한 컬럼 저장소.
+ * Item 객체 대신 필드별 primitive 배열(id - 1 이 index)에 값을 보관하고, itemName은 사전(dictionary)으로 중복을 제거한다.
+ * price, quantity가 null인지는 값과 따로 bitmap에 보관하므로 int의 모든 값을 그대로 보관할 수 있다.
+ * Item은 조회할 때만 만들어서 반환하므로, 반환된 Item을 수정해도 저장소에는 영향이 없다.
+ * item.repository.type=columnar 로 사용한다. (ItemRepositoryConfig)
+ */
+public class ColumnarItemRepository extends MemoryItemRepository {
+
+    private static final int NULL_NAME = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    //쓰기는 writeLock, 단건 조회는 lock 없이 낙관적 읽기(optimistic read) 후 검증한다.
+    private final StampedLock lock = new StampedLock();
+
+    private int[] nameCodes;
+    private int[] prices;
+    private int[] quantities;
+    private long[] versions;
+    //price, quantity가 null인 행. index번째 bit가 1이면 null이다.
+    private long[] nullPrices;
+    private long[] nullQuantities;
+    private int count;
+
+    /*
+    검색 인덱스는 (값, id) 항목 객체를 정렬된 Set에 보관하므로 상품당 인덱스 하나에 수십 byte가 추가된다.
+    primitive 배열로 줄인 상품 데이터보다 인덱스가 더 클 수 있다. 검색 속도를 위해 메모리를 더 쓰는 선택이다.
+    (쓰기는 모두 writeLock 안에서 하므로 인덱스 갱신 순서는 저장 순서와 같다.)
+    */
+    private final ItemIndex itemIndex = new ItemIndex();
+    //writeLock 없이 중복 확인(existsByItemName)을 할 수 있도록 ConcurrentHashMap 기반 인덱스를 따로 둔다.
+    private final ItemNameIndex itemNames = new ItemNameIndex();
+    //writeLock 안에서만 증가하지만 lock 없이 읽을 수 있도록 AtomicLong을 사용한다.
+    private final AtomicLong modificationCount = new AtomicLong();
+    //clear하면 id를 1부터 다시 사용하므로 세대를 바꾼다.
+    private volatile long generation;
+
+    /*
+    상품명 사전. 상품명마다 code 하나를 쓰고, code를 참조하는 상품 수(nameRefCounts)를 센다.
+    수정으로 참조하는 상품이 없어진 상품명은 사전에서 지우고, 그 code는 다음 새 상품명에 다시 사용한다.
+    */
+    private final Map<String, Integer> nameDictionary = new HashMap<>();
+    private String[] names;
+    private int[] nameRefCounts;
+    private int nameCount; //한번이라도 사용한 code 수
+    private int[] freeNameCodes;
+    private int freeNameCount;
+
+    public ColumnarItemRepository() {
+        clear();
+    }
+
+    @Override
+    public Item save(Item item) {
+        long stamp = lock.writeLock();
+        try {
+            return append(item);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //쓰기는 모두 writeLock 안에서 하므로 확인과 저장 사이에 같은 이름이 저장될 수 없다.
+    @Override
+    public Item saveUniqueName(Item item) {
+        long stamp = lock.writeLock();
+        try {
+            if (itemNames.contains(item.getItemName())) {
+                throw new DuplicateItemNameException(item.getItemName());
+            }
+            return append(item);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<Integer> saveAllUniqueName(List<Item> items) {
+        long stamp = lock.writeLock();
+        try {
+            List<Integer> duplicates = new ArrayList<>();
+            Set<String> batchNames = new HashSet<>();
+            for (int index = 0; index < items.size(); index++) {
+                String itemName = items.get(index).getItemName();
+                if (itemName != null && (itemNames.contains(itemName) || !batchNames.add(itemName))) {
+                    duplicates.add(index);
+                }
+            }
+            if (duplicates.isEmpty()) {
+                ensureCapacity(count + items.size());
+                for (Item item : items) {
+                    append(item);
+                }
+            }
+            return duplicates;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //writeLock을 한번만 잡고 모두 저장한다.
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(count + items.size());
+            for (Item item : items) {
+                append(item);
+            }
+            return items;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Item findById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        long stamp = lock.tryOptimisticRead();
+        Item item = readRow(id);
+        if (!lock.validate(stamp)) {
+            //읽는 도중 쓰기가 있었다면 readLock으로 다시 읽는다.
+            stamp = lock.readLock();
+            try {
+                item = readRow(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return item;
+    }
+
+    @Override
+    public boolean existsByItemName(String itemName) {
+        return itemNames.contains(itemName);
+    }
+
+    @Override
+    public List<Item> findAll() {
+        long stamp = lock.readLock();
+        try {
+            List<Item> items = new ArrayList<>(count);
+            for (int index = 0; index < count; index++) {
+                items.add(materialize(index));
+            }
+            return items;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public ItemPage findPage(Long after, Long before, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        long stamp = lock.readLock();
+        try {
+            //id가 1부터 빈틈없이 증가하므로 cursor를 바로 index로 바꿀 수 있다.
+            int from;
+            int to;
+            if (before != null) {
+                to = (int) Math.min(Math.max(before - 1, 0), count);
+                from = Math.max(to - pageSize, 0);
+            } else {
+                from = after == null ? 0 : (int) Math.min(Math.max(after, 0), count);
+                to = Math.min(from + pageSize, count);
+            }
+
+            List<Item> items = new ArrayList<>(to - from);
+            for (int index = from; index < to; index++) {
+                items.add(materialize(index));
+            }
+            if (items.isEmpty()) {
+                return new ItemPage(items, pageSize, null, null);
+            }
+            Long previousCursor = from > 0 ? (long) from + 1 : null;
+            Long nextCursor = to < count ? (long) to : null;
+            return new ItemPage(items, pageSize, previousCursor, nextCursor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean update(Long itemId, Item updateParam) {
+        return update(itemId, updateParam, false);
+    }
+
+    @Override
+    public boolean updateUniqueName(Long itemId, Item updateParam) {
+        return update(itemId, updateParam, true);
+    }
+
+    private boolean update(Long itemId, Item updateParam, boolean uniqueName) {
+        long stamp = lock.writeLock();
+        try {
+            int index = indexOf(itemId);
+            if (index < 0) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + itemId);
+            }
+            if (updateParam.getVersion() != null && updateParam.getVersion() != versions[index]) {
+                return false;
+            }
+            Item oldItem = materialize(index);
+            if (!Objects.equals(oldItem.getItemName(), updateParam.getItemName())) {
+                if (uniqueName && itemNames.contains(updateParam.getItemName())) {
+                    throw new DuplicateItemNameException(updateParam.getItemName());
+                }
+                itemNames.remove(oldItem.getItemName());
+                itemNames.add(updateParam.getItemName());
+            }
+            //같은 상품명이면 code를 그대로 쓰도록 새 이름을 먼저 등록하고 이전 이름을 놓는다.
+            int oldNameCode = nameCodes[index];
+            nameCodes[index] = encodeName(updateParam.getItemName());
+            releaseName(oldNameCode);
+            setValues(index, updateParam.getPrice(), updateParam.getQuantity());
+            versions[index]++;
+            itemIndex.update(oldItem, materialize(index));
+            modificationCount.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public long modificationCount() {
+        return modificationCount.get();
+    }
+
+    @Override
+    public long generation() {
+        return generation;
+    }
+
+    @Override
+    protected ItemIndex itemIndex() {
+        return itemIndex;
+    }
+
+    @Override
+    public void clearStore() {
+        long stamp = lock.writeLock();
+        try {
+            clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void clear() {
+        nameCodes = new int[INITIAL_CAPACITY];
+        prices = new int[INITIAL_CAPACITY];
+        quantities = new int[INITIAL_CAPACITY];
+        versions = new long[INITIAL_CAPACITY];
+        nullPrices = new long[bitmapLength(INITIAL_CAPACITY)];
+        nullQuantities = new long[bitmapLength(INITIAL_CAPACITY)];
+        count = 0;
+        nameDictionary.clear();
+        names = new String[INITIAL_CAPACITY];
+        nameRefCounts = new int[INITIAL_CAPACITY];
+        nameCount = 0;
+        freeNameCodes = new int[INITIAL_CAPACITY];
+        freeNameCount = 0;
+        itemIndex.clear();
+        itemNames.clear();
+        modificationCount.incrementAndGet();
+        generation = newGeneration();
+    }
+
+    private Item append(Item item) {
+        ensureCapacity(count + 1);
+        int index = count;
+        nameCodes[index] = encodeName(item.getItemName());
+        setValues(index, item.getPrice(), item.getQuantity());
+        versions[index] = 1L;
+        count++;
+
+        item.setId((long) index + 1);
+        item.setVersion(1L);
+        itemIndex.add(item);
+        itemNames.add(item.getItemName());
+        modificationCount.incrementAndGet();
+        return item;
+    }
+
+    /**
+     * 낙관적 읽기 중에는 배열이 교체되는 중일 수 있으므로 모든 index를 검사하고, 값이 맞지 않으면 null을 반환한다.
+     * 반환값은 lock.validate()가 성공한 경우에만 의미가 있다.
+     */
+    private Item readRow(long id) {
+        int[] nameCodes = this.nameCodes;
+        int[] prices = this.prices;
+        int[] quantities = this.quantities;
+        long[] versions = this.versions;
+        long[] nullPrices = this.nullPrices;
+        long[] nullQuantities = this.nullQuantities;
+        String[] names = this.names;
+        int count = this.count;
+
+        if (id < 1 || id > count) {
+            return null;
+        }
+        int index = (int) (id - 1);
+        if (index >= nameCodes.length || index >= prices.length
+                || index >= quantities.length || index >= versions.length
+                || index >>> 6 >= nullPrices.length || index >>> 6 >= nullQuantities.length) {
+            return null;
+        }
+        int nameCode = nameCodes[index];
+        if (nameCode >= names.length) {
+            return null;
+        }
+        return toItem(index, nameCode == NULL_NAME ? null : names[nameCode],
+                isNull(nullPrices, index) ? null : prices[index],
+                isNull(nullQuantities, index) ? null : quantities[index], versions[index]);
+    }
+
+    private Item materialize(int index) {
+        int nameCode = nameCodes[index];
+        return toItem(index, nameCode == NULL_NAME ? null : names[nameCode],
+                isNull(nullPrices, index) ? null : prices[index],
+                isNull(nullQuantities, index) ? null : quantities[index], versions[index]);
+    }
+
+    private Item toItem(int index, String itemName, Integer price, Integer quantity, long version) {
+        Item item = new Item(itemName, price, quantity);
+        item.setId((long) index + 1);
+        item.setVersion(version);
+        return item;
+    }
+
+    private int indexOf(Long id) {
+        if (id == null || id < 1 || id > count) {
+            return -1;
+        }
+        return (int) (id - 1);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= versions.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, versions.length * 2);
+        nameCodes = Arrays.copyOf(nameCodes, newCapacity);
+        prices = Arrays.copyOf(prices, newCapacity);
+        quantities = Arrays.copyOf(quantities, newCapacity);
+        versions = Arrays.copyOf(versions, newCapacity);
+        nullPrices = Arrays.copyOf(nullPrices, bitmapLength(newCapacity));
+        nullQuantities = Arrays.copyOf(nullQuantities, bitmapLength(newCapacity));
+    }
+
+    private void setValues(int index, Integer price, Integer quantity) {
+        prices[index] = price == null ? 0 : price;
+        quantities[index] = quantity == null ? 0 : quantity;
+        setNull(nullPrices, index, price == null);
+        setNull(nullQuantities, index, quantity == null);
+    }
+
+    //같은 상품명은 한번만 보관하고 code로 참조한다.
+    private int encodeName(String itemName) {
+        if (itemName == null) {
+            return NULL_NAME;
+        }
+        Integer code = nameDictionary.get(itemName);
+        if (code != null) {
+            nameRefCounts[code]++;
+            return code;
+        }
+        int newCode;
+        if (freeNameCount > 0) {
+            newCode = freeNameCodes[--freeNameCount];
+        } else {
+            if (nameCount == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+                nameRefCounts = Arrays.copyOf(nameRefCounts, names.length);
+                freeNameCodes = Arrays.copyOf(freeNameCodes, names.length);
+            }
+            newCode = nameCount++;
+        }
+        names[newCode] = itemName;
+        nameRefCounts[newCode] = 1;
+        nameDictionary.put(itemName, newCode);
+        return newCode;
+    }
+
+    //참조하는 상품이 없어진 상품명은 사전에서 지운다. 낙관적 읽기 중인 조회는 lock.validate()에서 실패해서 다시 읽는다.
+    private void releaseName(int code) {
+        if (code == NULL_NAME || --nameRefCounts[code] > 0) {
+            return;
+        }
+        nameDictionary.remove(names[code]);
+        names[code] = null;
+        freeNameCodes[freeNameCount++] = code;
+    }
+
+    //사전에 보관된 상품명 수
+    int nameDictionarySize() {
+        long stamp = lock.readLock();
+        try {
+            return nameDictionary.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int bitmapLength(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    private static boolean isNull(long[] bitmap, int index) {
+        return (bitmap[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setNull(long[] bitmap, int index, boolean isNull) {
+        if (isNull) {
+            bitmap[index >>> 6] |= 1L << index;
+        } else {
+            bitmap[index >>> 6] &= ~(1L << index);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package hello.itemservice.domain.item;
+
+/**
+ * 같은 상품명의 상품이 이미 있어 저장/수정하지 못한 경우. (ItemRepository.saveUniqueName, updateUniqueName)
+ */
+public class DuplicateItemNameException extends RuntimeException {
+
+    private final String itemName;
+
+    public DuplicateItemNameException(String itemName) {
+        super("이미 등록된 상품명입니다. itemName=" + itemName);
+        this.itemName = itemName;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+}
@@ -15,6 +15,9 @@ public class Item {
     private Integer price;
     private Integer quantity;
 
+    //수정 충돌 감지용 버전. ItemRepository가 저장/수정 시 증가시킨다.
+    private Long version;
+
     public Item() {
     }
 
@@ -0,0 +1,73 @@
+package hello.itemservice.domain.item;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 전체 상품을 id 순으로 chunkSize개씩 findPage로 읽어 오는 Iterator.
+ * 한번에 최대 chunkSize개만 메모리에 두므로 상품 수와 관계없이 사용하는 메모리가 일정하다.
+ *
+ * beforeNextChunk는 다음 chunk를 읽기 직전에 호출된다. 그동안 만든 응답을 내보내는(flush) 용도로 사용한다.
+ * 목록 전체의 snapshot이 아니므로 읽는 도중 저장/수정된 상품은 위치에 따라 반영되거나 반영되지 않는다.
+ */
+public class ItemCursor implements Iterator<Item> {
+
+    private final ItemRepository itemRepository;
+    private final int chunkSize;
+    private final Runnable beforeNextChunk;
+
+    private Iterator<Item> chunk = Collections.emptyIterator();
+    private Long after;
+    private Long lastId;
+    private boolean last;
+
+    /**
+     * @param after 이 id 다음부터 읽는다. null이면 처음부터
+     */
+    public ItemCursor(ItemRepository itemRepository, Long after, int chunkSize, Runnable beforeNextChunk) {
+        this.itemRepository = itemRepository;
+        this.after = after;
+        this.chunkSize = chunkSize;
+        this.beforeNextChunk = beforeNextChunk;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!chunk.hasNext()) {
+            if (last) {
+                return false;
+            }
+            beforeNextChunk.run();
+            ItemPage page = itemRepository.findPage(after, null, chunkSize);
+            chunk = page.getItems().iterator();
+            after = page.getNextCursor();
+            last = after == null;
+        }
+        return true;
+    }
+
+    @Override
+    public Item next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Item item = chunk.next();
+        lastId = item.getId();
+        return item;
+    }
+
+    /**
+     * 다음 chunk를 읽지 않고, 마지막으로 읽은 페이지의 nextCursor로 남은 상품이 있는지 확인한다.
+     */
+    public boolean hasMore() {
+        return chunk.hasNext() || !last;
+    }
+
+    /**
+     * 마지막으로 반환한 상품의 id. 이어서 읽을 때 after로 사용한다.
+     */
+    public Long getLastId() {
+        return lastId;
+    }
+}
@@ -0,0 +1,179 @@
+package hello.itemservice.domain.item;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 가격, 상품명 prefix 검색을 위한 보조 인덱스.
+ * 정렬된 Set을 사용하므로 전체를 훑지 않고, 범위의 시작 위치를 O(log n)에 찾은 뒤 결과 개수만큼만 읽는다.
+ *
+ * 값마다 id를 모아두는 bucket 대신 (값, id) 쌍 하나를 항목으로 보관한다.
+ * 추가/삭제가 항목 하나에 대한 연산이므로 같은 값을 가진 다른 상품의 변경과 경쟁하지 않고, 비어있는 bucket도 남지 않는다.
+ *
+ * 같은 상품의 변경은 순서대로 반영해야 한다. (저장소가 상품별 lock 안에서 update를 호출한다.)
+ * 인덱스는 저장소와 별도로 갱신되므로 잠시 이전 값을 가리킬 수 있다.
+ * 따라서 조회한 id는 반드시 저장소의 현재 값으로 다시 확인해야 한다. (ItemSearchCond.matches)
+ */
+public class ItemIndex {
+
+    private final NavigableSet<PriceEntry> priceIndex = new ConcurrentSkipListSet<>();
+    private final NavigableSet<NameEntry> itemNameIndex = new ConcurrentSkipListSet<>();
+
+    public void add(Item item) {
+        if (item.getPrice() != null) {
+            priceIndex.add(new PriceEntry(item.getPrice(), item.getId()));
+        }
+        if (item.getItemName() != null) {
+            itemNameIndex.add(new NameEntry(item.getItemName(), item.getId()));
+        }
+    }
+
+    public void remove(Item item) {
+        if (item.getPrice() != null) {
+            priceIndex.remove(new PriceEntry(item.getPrice(), item.getId()));
+        }
+        if (item.getItemName() != null) {
+            itemNameIndex.remove(new NameEntry(item.getItemName(), item.getId()));
+        }
+    }
+
+    /**
+     * 같은 상품에 대한 update는 호출하는 쪽에서 순서를 보장해야 한다.
+     * 바뀌지 않은 값은 지웠다가 다시 넣지 않으므로 검색 중에 잠시 빠지지도 않는다.
+     */
+    public void update(Item oldItem, Item newItem) {
+        if (!Objects.equals(oldItem.getPrice(), newItem.getPrice())) {
+            if (newItem.getPrice() != null) {
+                priceIndex.add(new PriceEntry(newItem.getPrice(), newItem.getId()));
+            }
+            if (oldItem.getPrice() != null) {
+                priceIndex.remove(new PriceEntry(oldItem.getPrice(), oldItem.getId()));
+            }
+        }
+        if (!Objects.equals(oldItem.getItemName(), newItem.getItemName())) {
+            if (newItem.getItemName() != null) {
+                itemNameIndex.add(new NameEntry(newItem.getItemName(), newItem.getId()));
+            }
+            if (oldItem.getItemName() != null) {
+                itemNameIndex.remove(new NameEntry(oldItem.getItemName(), oldItem.getId()));
+            }
+        }
+    }
+
+    public void clear() {
+        priceIndex.clear();
+        itemNameIndex.clear();
+    }
+
+    /**
+     * 검색 조건에 맞을 수 있는 id들. 상품명 prefix가 있으면 상품명 인덱스, 없으면 가격 인덱스를 사용한다.
+     */
+    public Iterator<Long> candidateIds(ItemSearchCond cond) {
+        if (cond.hasItemNamePrefix()) {
+            return findIdsByItemNamePrefix(cond.getItemNamePrefix());
+        }
+        return findIdsByPriceRange(cond.getMinPrice(), cond.getMaxPrice());
+    }
+
+    /**
+     * minPrice가 maxPrice보다 크면 해당하는 상품이 없으므로 빈 결과를 반환한다.
+     */
+    public Iterator<Long> findIdsByPriceRange(Integer minPrice, Integer maxPrice) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            return Collections.emptyIterator();
+        }
+        NavigableSet<PriceEntry> range = priceIndex;
+        if (minPrice != null) {
+            range = range.tailSet(new PriceEntry(minPrice, Long.MIN_VALUE), true);
+        }
+        if (maxPrice != null) {
+            range = range.headSet(new PriceEntry(maxPrice, Long.MAX_VALUE), true);
+        }
+        Iterator<PriceEntry> entries = range.iterator();
+        return new Iterator<Long>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Long next() {
+                return entries.next().id;
+            }
+        };
+    }
+
+    /**
+     * prefix로 시작하지 않는 상품명을 만나는 순간 멈춘다.
+     */
+    public Iterator<Long> findIdsByItemNamePrefix(String prefix) {
+        Iterator<NameEntry> entries = itemNameIndex.tailSet(new NameEntry(prefix, Long.MIN_VALUE), true).iterator();
+        return new Iterator<Long>() {
+            private NameEntry next;
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+                if (finished || !entries.hasNext()) {
+                    return false;
+                }
+                NameEntry entry = entries.next();
+                if (!entry.itemName.startsWith(prefix)) {
+                    finished = true;
+                    return false;
+                }
+                next = entry;
+                return true;
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long id = next.id;
+                next = null;
+                return id;
+            }
+        };
+    }
+
+    private static final class PriceEntry implements Comparable<PriceEntry> {
+        private final int price;
+        private final long id;
+
+        PriceEntry(int price, long id) {
+            this.price = price;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(PriceEntry other) {
+            int result = Integer.compare(price, other.price);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+
+    private static final class NameEntry implements Comparable<NameEntry> {
+        private final String itemName;
+        private final long id;
+
+        NameEntry(String itemName, long id) {
+            this.itemName = itemName;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(NameEntry other) {
+            int result = itemName.compareTo(other.itemName);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package hello.itemservice.domain.item;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 상품 저장소의 write-ahead log(WAL)와 snapshot 파일을 관리한다.
+ *
+ * - 저장/수정된 상품의 전체 값을 WAL 세그먼트(wal-{번호}.log)에 순서대로 추가한다.
+ * - snapshot은 새 세그먼트로 교체(rotate)한 뒤 저장소 전체를 memory-mapped 파일(items.snapshot)로 기록하고,
+ *   snapshot에 포함된 이전 세그먼트들은 삭제한다.
+ * - 복구는 snapshot을 읽고 남아있는 세그먼트를 순서대로 다시 적용(replay)한다.
+ *   세그먼트 중간의 손상된 기록은 건너뛰고 격리 파일(wal-{번호}-{위치}.corrupt)로 남긴다.
+ * - 저장소의 세대(generation 파일)는 처음 열 때 만들고, reset할 때 새로 만든다.
+ *
+ * 모든 기록은 상품의 전체 값과 version을 가지므로, 같은 기록을 여러번 적용하거나 순서가 바뀌어도
+ * version이 높은 값만 남는다. (MemoryItemRepository.restore)
+ */
+@Slf4j
+public class ItemJournal implements AutoCloseable {
+
+    private static final long SNAPSHOT_MAGIC = 0x4954454d534e4150L; //"ITEMSNAP"
+    private static final String SNAPSHOT_FILE = "items.snapshot";
+    private static final String GENERATION_FILE = "generation";
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final int RECORD_HEADER = 4 + 4; //length, crc
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+
+    private final Path dir;
+    private final boolean fsync;
+
+    private FileChannel segment;
+    private long segmentNo;
+    //마지막 reset(또는 recover) 이후 처음 연 세그먼트. 이보다 앞의 세그먼트까지만 포함하는 snapshot은 reset 이전의 것이다.
+    private long firstSegmentNo;
+    private volatile long generation;
+
+    public ItemJournal(Path dir, boolean fsync) {
+        this.dir = dir;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(dir);
+            generation = readGeneration();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * snapshot과 WAL을 읽어 item마다 consumer를 호출한 뒤, 새 세그먼트를 열어 기록을 시작한다.
+     * @return 읽은 기록 수
+     */
+    public synchronized long recover(Consumer<Item> consumer) {
+        try {
+            long count = 0;
+            Path snapshot = dir.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshot)) {
+                count += readSnapshot(snapshot, consumer);
+            }
+            List<Long> segmentNos = segmentNos();
+            for (Long no : segmentNos) {
+                count += replay(segmentPath(no), consumer);
+            }
+            long lastNo = segmentNos.isEmpty() ? 0 : segmentNos.get(segmentNos.size() - 1);
+            openSegment(lastNo + 1);
+            firstSegmentNo = segmentNo;
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void append(Item item) {
+        appendAll(List.of(item));
+    }
+
+    /**
+     * 여러 기록을 한번의 write(fsync)로 추가한다.
+     */
+    public synchronized void appendAll(List<Item> items) {
+        int size = 0;
+        for (Item item : items) {
+            size += recordSize(item);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (Item item : items) {
+            writeRecord(buffer, item);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            if (fsync) {
+                segment.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 새 세그먼트로 교체하고, 교체 이전 세그먼트 번호를 반환한다. 이후 기록은 새 세그먼트에 추가된다.
+     * 반환된 번호 이하의 세그먼트는 이후에 찍는 snapshot에 모두 포함된다.
+     */
+    public synchronized long rotate() {
+        long previousNo = segmentNo;
+        try {
+            segment.force(false);
+            segment.close();
+            openSegment(previousNo + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return previousNo;
+    }
+
+    /**
+     * items를 memory-mapped 파일로 기록한 뒤 snapshot 파일을 교체하고, coveredSegmentNo 이하의 세그먼트를 삭제한다.
+     * 기록 중에도 append는 계속 가능하다. (snapshot 이후의 변경은 새 세그먼트에 남는다.)
+     * 기록하는 사이 reset 되었다면 이전 저장소의 snapshot이므로 교체하지 않고 버린다.
+     */
+    public void snapshot(Iterable<Item> items, long coveredSegmentNo) {
+        Path temp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = 8 + 4;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, MAP_WINDOW);
+            int count = 0;
+            for (Item item : items) {
+                int size = recordSize(item);
+                if (buffer.remaining() < size) {
+                    position += buffer.position();
+                    buffer.force();
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(MAP_WINDOW, size));
+                }
+                writeRecord(buffer, item);
+                count++;
+            }
+            position += buffer.position();
+            buffer.force();
+
+            ByteBuffer header = ByteBuffer.allocate(8 + 4);
+            header.putLong(SNAPSHOT_MAGIC).putInt(count).flip();
+            channel.write(header, 0);
+            channel.truncate(position);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        publishSnapshot(temp, coveredSegmentNo);
+    }
+
+    //reset과 겹치지 않도록 교체와 세그먼트 삭제는 lock 안에서 한다.
+    private synchronized void publishSnapshot(Path temp, long coveredSegmentNo) {
+        try {
+            if (coveredSegmentNo < firstSegmentNo) {
+                log.info("snapshot 도중 저장소가 비워져 snapshot을 버립니다. coveredSegmentNo={}", coveredSegmentNo);
+                Files.deleteIfExists(temp);
+                return;
+            }
+            Files.move(temp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (Long no : segmentNos()) {
+                if (no <= coveredSegmentNo) {
+                    Files.deleteIfExists(segmentPath(no));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 모든 기록을 삭제하고 빈 세그먼트로 다시 시작한다.
+     * 세그먼트 번호는 이어서 사용하므로, 진행 중이던 snapshot은 reset 이전의 것임을 알 수 있다.
+     */
+    public synchronized void reset() {
+        try {
+            if (segment != null) {
+                segment.close();
+            }
+            Files.deleteIfExists(dir.resolve(SNAPSHOT_FILE));
+            for (Long no : segmentNos()) {
+                Files.deleteIfExists(segmentPath(no));
+            }
+            writeGeneration(MemoryItemRepository.newGeneration());
+            openSegment(segmentNo + 1);
+            firstSegmentNo = segmentNo;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (segment != null && segment.isOpen()) {
+                segment.force(false);
+                segment.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long readGeneration() throws IOException {
+        Path path = dir.resolve(GENERATION_FILE);
+        if (Files.exists(path)) {
+            byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length == 8) {
+                return ByteBuffer.wrap(bytes).getLong();
+            }
+            log.warn("generation 파일이 손상되어 새로 만듭니다. {}", path);
+        }
+        return writeGeneration(MemoryItemRepository.newGeneration());
+    }
+
+    private long writeGeneration(long newGeneration) throws IOException {
+        Path temp = dir.resolve(GENERATION_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            buffer.putLong(newGeneration).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, dir.resolve(GENERATION_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation = newGeneration;
+        return newGeneration;
+    }
+
+    private void openSegment(long no) throws IOException {
+        segmentNo = no;
+        segment = FileChannel.open(segmentPath(no), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long no) {
+        return dir.resolve(SEGMENT_PREFIX + no + SEGMENT_SUFFIX);
+    }
+
+    private List<Long> segmentNos() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private long readSnapshot(Path path, Consumer<Item> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8 + 4);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < 12 || header.getLong() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("snapshot 파일 형식이 올바르지 않습니다. " + path);
+            }
+            int count = header.getInt();
+
+            long position = 8 + 4;
+            long fileSize = channel.size();
+            MappedByteBuffer buffer = null;
+            for (int i = 0; i < count; i++) {
+                if (buffer == null || !hasRecord(buffer)) {
+                    if (buffer != null) {
+                        position += buffer.position();
+                    }
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, fileSize - position));
+                }
+                Item item = readRecord(buffer);
+                if (item == null) {
+                    throw new IllegalStateException("snapshot 파일이 손상되었습니다. " + path);
+                }
+                consumer.accept(item);
+            }
+            log.info("snapshot 복구 items={}", count);
+            return count;
+        }
+    }
+
+    /**
+     * 세그먼트의 기록을 순서대로 적용한다.
+     * 중간의 기록이 손상되었다면 다음 온전한 기록을 찾아 이어서 적용하고, 건너뛴 부분은 격리 파일로 남긴다.
+     * 뒤에 온전한 기록이 없다면 마지막 기록을 쓰다가 중단된 것이므로 그 이후를 잘라낸다.
+     * 세그먼트는 snapshot마다 교체되므로 한번에 읽는다.
+     */
+    private long replay(Path path, Consumer<Item> consumer) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("WAL 세그먼트가 너무 큽니다. " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+
+            int validSize = 0;
+            while (buffer.hasRemaining()) {
+                int start = buffer.position();
+                if (isRecord(buffer, start)) {
+                    consumer.accept(parseRecord(buffer));
+                    count++;
+                    validSize = buffer.position();
+                    continue;
+                }
+                int next = nextRecord(buffer, start + 1);
+                if (next < 0) {
+                    break;
+                }
+                quarantine(path, buffer, start, next);
+                buffer.position(next);
+            }
+            if (validSize < buffer.limit()) {
+                log.warn("쓰다가 중단된 WAL 기록을 버립니다. file={}, size={}, validSize={}", path, buffer.limit(), validSize);
+                channel.truncate(validSize);
+            }
+        }
+        log.info("WAL 복구 file={}, records={}", path.getFileName(), count);
+        return count;
+    }
+
+    private static int nextRecord(ByteBuffer buffer, int from) {
+        for (int position = from; position + RECORD_HEADER <= buffer.limit(); position++) {
+            if (isRecord(buffer, position)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    //[from, to) 구간을 격리 파일로 남긴다. 같은 세그먼트를 다시 복구해도 같은 파일을 덮어쓴다.
+    private void quarantine(Path path, ByteBuffer buffer, int from, int to) throws IOException {
+        String name = path.getFileName().toString();
+        Path corrupt = dir.resolve(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + "-" + from + CORRUPT_SUFFIX);
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(to).position(from);
+        try (FileChannel channel = FileChannel.open(corrupt, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        log.warn("손상된 WAL 기록을 건너뜁니다. file={}, from={}, to={}, quarantine={}", path, from, to, corrupt.getFileName());
+    }
+
+    /**
+     * position에 온전한 기록이 있는지 확인한다. 길이와 상품명 길이가 맞는 경우에만 crc를 계산한다.
+     */
+    private static boolean isRecord(ByteBuffer buffer, int position) {
+        if (buffer.limit() - position < RECORD_HEADER) {
+            return false;
+        }
+        int payloadSize = buffer.getInt(position);
+        int payloadStart = position + RECORD_HEADER;
+        if (payloadSize < payloadSize(0) || payloadSize > buffer.limit() - payloadStart) {
+            return false;
+        }
+        int nameLength = buffer.getInt(payloadStart + 8 + 8);
+        if (nameLength < -1 || payloadSize(Math.max(nameLength, 0)) != payloadSize) {
+            return false;
+        }
+        return crc(buffer, payloadStart, payloadSize) == buffer.getInt(position + 4);
+    }
+
+    private static boolean hasHeader(ByteBuffer buffer) {
+        return buffer.remaining() >= RECORD_HEADER;
+    }
+
+    private static long recordLength(ByteBuffer buffer) {
+        return RECORD_HEADER + (long) buffer.getInt(buffer.position());
+    }
+
+    private static boolean hasRecord(ByteBuffer buffer) {
+        return hasHeader(buffer) && buffer.getInt(buffer.position()) >= 0 && buffer.remaining() >= recordLength(buffer);
+    }
+
+    /*
+    기록 형식: [payload 길이][payload crc][id][version][상품명 길이(null이면 -1)][상품명 UTF-8][null flag][price][quantity]
+    */
+    private static int recordSize(Item item) {
+        int nameLength = item.getItemName() == null ? 0 : item.getItemName().getBytes(StandardCharsets.UTF_8).length;
+        return RECORD_HEADER + payloadSize(nameLength);
+    }
+
+    private static int payloadSize(int nameLength) {
+        return 8 + 8 + 4 + nameLength + 1 + 4 + 4;
+    }
+
+    private static void writeRecord(ByteBuffer buffer, Item item) {
+        byte[] name = item.getItemName() == null ? null : item.getItemName().getBytes(StandardCharsets.UTF_8);
+        int payloadSize = payloadSize(name == null ? 0 : name.length);
+
+        int start = buffer.position();
+        buffer.putInt(payloadSize);
+        buffer.putInt(0); //crc는 payload를 기록한 뒤 채운다.
+        int payloadStart = buffer.position();
+        buffer.putLong(item.getId());
+        buffer.putLong(item.getVersion());
+        buffer.putInt(name == null ? -1 : name.length);
+        if (name != null) {
+            buffer.put(name);
+        }
+        byte nullFlag = (byte) ((item.getPrice() == null ? 1 : 0) | (item.getQuantity() == null ? 2 : 0));
+        buffer.put(nullFlag);
+        buffer.putInt(item.getPrice() == null ? 0 : item.getPrice());
+        buffer.putInt(item.getQuantity() == null ? 0 : item.getQuantity());
+
+        buffer.putInt(start + 4, crc(buffer, payloadStart, payloadSize));
+    }
+
+    /**
+     * @return crc가 맞지 않으면 null
+     */
+    private static Item readRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (crc(buffer, start + RECORD_HEADER, buffer.getInt(start)) != buffer.getInt(start + 4)) {
+            return null;
+        }
+        return parseRecord(buffer);
+    }
+
+    //crc를 확인한 기록을 읽는다.
+    private static Item parseRecord(ByteBuffer buffer) {
+        buffer.position(buffer.position() + RECORD_HEADER);
+        long id = buffer.getLong();
+        long version = buffer.getLong();
+        int nameLength = buffer.getInt();
+        String itemName = null;
+        if (nameLength >= 0) {
+            byte[] name = new byte[nameLength];
+            buffer.get(name);
+            itemName = new String(name, StandardCharsets.UTF_8);
+        }
+        byte nullFlag = buffer.get();
+        int price = buffer.getInt();
+        int quantity = buffer.getInt();
+
+        Item item = new Item(itemName, (nullFlag & 1) != 0 ? null : price, (nullFlag & 2) != 0 ? null : quantity);
+        item.setId(id);
+        item.setVersion(version);
+        return item;
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc32 = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + length).position(offset);
+        crc32.update(payload);
+        return (int) crc32.getValue();
+    }
+}
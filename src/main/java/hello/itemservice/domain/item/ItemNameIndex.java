@@ -0,0 +1,43 @@
+package hello.itemservice.domain.item;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 상품명 -> 같은 이름을 가진 상품 수. 상품명 중복 확인(@UniqueItemName)을 상품 수와 관계없이 O(1)에 한다.
+ *
+ * 일반 저장(add)은 중복을 허용하고 개수만 늘린다.
+ * 중복을 허용하지 않는 저장은 claim으로 이름을 먼저 선점한다. 선점은 putIfAbsent 한번이므로
+ * 같은 이름을 동시에 저장하더라도 하나만 성공한다.
+ */
+public class ItemNameIndex {
+
+    private final ConcurrentHashMap<String, Integer> counts = new ConcurrentHashMap<>();
+
+    public void add(String itemName) {
+        if (itemName != null) {
+            counts.merge(itemName, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 같은 이름이 없을 때만 개수를 1로 만든다. 이름이 없으면(null) 중복 확인을 하지 않는다.
+     * @return 이미 같은 이름이 있으면 false
+     */
+    public boolean claim(String itemName) {
+        return itemName == null || counts.putIfAbsent(itemName, 1) == null;
+    }
+
+    public void remove(String itemName) {
+        if (itemName != null) {
+            counts.computeIfPresent(itemName, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    public boolean contains(String itemName) {
+        return itemName != null && counts.containsKey(itemName);
+    }
+
+    public void clear() {
+        counts.clear();
+    }
+}
@@ -0,0 +1,33 @@
+package hello.itemservice.domain.item;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * id 순으로 정렬된 상품 목록의 한 페이지.
+ * 다음/이전 페이지는 offset이 아니라 마지막/첫번째 id(cursor)를 기준으로 조회한다.
+ */
+@Getter
+public class ItemPage {
+
+    private final List<Item> items;
+    private final int size;
+    private final Long previousCursor; //이전 페이지가 없으면 null
+    private final Long nextCursor; //다음 페이지가 없으면 null
+
+    public ItemPage(List<Item> items, int size, Long previousCursor, Long nextCursor) {
+        this.items = items;
+        this.size = size;
+        this.previousCursor = previousCursor;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
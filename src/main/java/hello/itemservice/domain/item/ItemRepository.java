@@ -1,41 +1,94 @@
 package hello.itemservice.domain.item;
 
-import org.springframework.stereotype.Repository;
-
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-@Repository
-public class ItemRepository {
+/**
+ * 상품 저장소.
+ * 구현체: MemoryItemRepository(기본), ColumnarItemRepository, PersistentItemRepository
+ * CachingItemRepository로 감싸면 자주 조회되는 상품을 메모리 캐시에서 반환한다. (ItemRepositoryConfig)
+ */
+public interface ItemRepository {
 
-    private static final Map<Long, Item> store = new HashMap<>(); //static
-    private static long sequence = 0L; //static
+    int DEFAULT_PAGE_SIZE = 20;
+    int MAX_PAGE_SIZE = 100;
 
-    public Item save(Item item) {
-        item.setId(++sequence);
-        store.put(item.getId(), item);
-        return item;
-    }
+    /**
+     * 저장하면서 item에 id, version(1)을 채운다.
+     */
+    Item save(Item item);
 
-    public Item findById(Long id) {
-        return store.get(id);
+    /**
+     * 여러 상품을 한번에 저장한다. 저장소마다 묶어서 처리할 수 있는 부분(파일 기록 등)을 한번에 처리한다.
+     */
+    default List<Item> saveAll(List<Item> items) {
+        for (Item item : items) {
+            save(item);
+        }
+        return items;
     }
 
-    public List<Item> findAll() {
-        return new ArrayList<>(store.values());
-    }
+    Item findById(Long id);
 
-    public void update(Long itemId, Item updateParam) {
-        Item findItem = findById(itemId);
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
-    }
+    /**
+     * 같은 상품명의 상품이 있는지 확인한다. 상품 수와 관계없이 O(1)이다.
+     */
+    boolean existsByItemName(String itemName);
 
-    public void clearStore() {
-        store.clear();
-    }
+    /**
+     * 같은 상품명의 상품이 없을 때만 저장한다. 확인과 저장 사이에 다른 요청이 같은 이름을 저장할 수 없다.
+     * @throws DuplicateItemNameException 같은 상품명의 상품이 이미 있는 경우
+     */
+    Item saveUniqueName(Item item);
+
+    /**
+     * 모든 상품명이 저장된 상품, 그리고 목록 안의 다른 상품과 겹치지 않을 때만 모두 저장한다. 하나라도 겹치면 아무것도 저장하지 않는다.
+     * 확인과 저장 사이에 다른 요청이 같은 이름을 저장할 수 없다.
+     * @return 상품명이 겹쳐 저장할 수 없는 상품의 위치(items의 index). 비어 있으면 모두 저장되었다.
+     */
+    List<Integer> saveAllUniqueName(List<Item> items);
+
+    /**
+     * 전체 상품 목록. 수정할 수 없는 목록이다.
+     */
+    List<Item> findAll();
+
+    /**
+     * id 순으로 size개 만큼 조회한다.
+     * @param after 이 id 다음부터 조회. null이면 처음부터
+     * @param before 이 id 이전의 size개를 조회. after보다 우선한다.
+     */
+    ItemPage findPage(Long after, Long before, int size);
+
+    /**
+     * updateParam의 version이 있으면 저장된 version과 같을 때만 수정한다.
+     * @return 다른 요청이 먼저 수정하여 version이 맞지 않으면 false
+     * @throws IllegalArgumentException 존재하지 않는 상품
+     */
+    boolean update(Long itemId, Item updateParam);
+
+    /**
+     * update와 같고, 상품명을 바꾸는 경우 같은 상품명의 다른 상품이 없을 때만 수정한다.
+     * @throws DuplicateItemNameException 같은 상품명의 다른 상품이 이미 있는 경우
+     */
+    boolean updateUniqueName(Long itemId, Item updateParam);
+
+    /**
+     * 가격 범위, 상품명 prefix로 최대 limit개를 검색한다.
+     */
+    List<Item> search(ItemSearchCond cond, int limit);
+
+    /**
+     * 저장/수정/삭제할 때마다 증가하는 번호. 같은 generation 안에서 값이 같다면 그 사이 변경이 없었다. (목록 화면의 ETag)
+     * 상품 하나의 변경은 Item.version으로 확인한다.
+     */
+    long modificationCount();
+
+    /**
+     * 저장소의 세대. 같은 세대 안에서는 같은 id, version, modificationCount가 다른 데이터를 가리키지 않는다.
+     * 메모리에만 보관하는 저장소는 시작할 때마다, 모든 저장소는 clearStore할 때마다 바뀐다.
+     * PersistentItemRepository는 파일에 보관하므로 재시작해도 유지된다.
+     */
+    long generation();
 
+    void clearStore();
 }
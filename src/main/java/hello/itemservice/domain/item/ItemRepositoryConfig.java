@@ -0,0 +1,64 @@
+package hello.itemservice.domain.item;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * 설정에 따라 ItemRepository 빈을 만든다.
+ * item.repository.type: memory(기본), columnar, persistent
+ * item.repository.cache.maximum-size: 0보다 크면 CachingItemRepository로 감싼다.
+ * 빈이 close()를 가지고 있으면 종료시 호출된다. (PersistentItemRepository의 WAL 정리)
+ */
+@Configuration
+public class ItemRepositoryConfig {
+
+    @Bean
+    public ItemRepository itemRepository(@Value("${item.repository.type:memory}") String type,
+                                         @Value("${item.repository.persistence.dir:./data}") String dir,
+                                         @Value("${item.repository.persistence.fsync:false}") boolean fsync,
+                                         @Value("${item.repository.persistence.snapshot-interval:10000}") long snapshotInterval,
+                                         @Value("${item.repository.cache.maximum-size:0}") int cacheMaximumSize,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        ItemRepository itemRepository = createItemRepository(type, dir, fsync, snapshotInterval);
+        if (cacheMaximumSize <= 0) {
+            return itemRepository;
+        }
+
+        CachingItemRepository cachingItemRepository = new CachingItemRepository(itemRepository, cacheMaximumSize);
+        meterRegistry.ifAvailable(registry -> bindCacheMetrics(cachingItemRepository, registry));
+        return cachingItemRepository;
+    }
+
+    private ItemRepository createItemRepository(String type, String dir, boolean fsync, long snapshotInterval) {
+        switch (type) {
+            case "memory":
+                return new MemoryItemRepository();
+            case "columnar":
+                return new ColumnarItemRepository();
+            case "persistent":
+                return new PersistentItemRepository(Paths.get(dir), fsync, snapshotInterval);
+            default:
+                throw new IllegalArgumentException("지원하지 않는 item.repository.type 입니다. type=" + type);
+        }
+    }
+
+    private void bindCacheMetrics(CachingItemRepository cache, MeterRegistry registry) {
+        FunctionCounter.builder("item.repository.cache.gets", cache, CachingItemRepository::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("item.repository.cache.gets", cache, CachingItemRepository::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("item.repository.cache.evictions", cache, CachingItemRepository::evictionCount)
+                .register(registry);
+        Gauge.builder("item.repository.cache.size", cache, CachingItemRepository::size)
+                .register(registry);
+    }
+}
@@ -0,0 +1,54 @@
+package hello.itemservice.domain.item;
+
+import lombok.Data;
+import org.springframework.util.StringUtils;
+
+/**
+ * 상품 검색 조건. 값이 없는 조건은 사용하지 않는다.
+ */
+@Data
+public class ItemSearchCond {
+
+    private String itemNamePrefix;
+    private Integer minPrice;
+    private Integer maxPrice;
+
+    public ItemSearchCond() {
+    }
+
+    public ItemSearchCond(String itemNamePrefix, Integer minPrice, Integer maxPrice) {
+        this.itemNamePrefix = itemNamePrefix;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public boolean hasItemNamePrefix() {
+        return StringUtils.hasText(itemNamePrefix);
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasItemNamePrefix() && !hasPriceRange();
+    }
+
+    public boolean matches(Item item) {
+        if (hasItemNamePrefix() && (item.getItemName() == null || !item.getItemName().startsWith(itemNamePrefix))) {
+            return false;
+        }
+        if (hasPriceRange()) {
+            if (item.getPrice() == null) {
+                return false;
+            }
+            if (minPrice != null && item.getPrice() < minPrice) {
+                return false;
+            }
+            if (maxPrice != null && item.getPrice() > maxPrice) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
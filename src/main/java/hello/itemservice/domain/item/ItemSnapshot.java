@@ -0,0 +1,71 @@
+package hello.itemservice.domain.item;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 특정 시점(version)의 전체 상품 목록. 한번 만들어지면 바뀌지 않으므로 여러 요청이 lock, 복사 없이 함께 읽는다.
+ * items는 id 순으로 정렬되어 있다.
+ */
+public class ItemSnapshot {
+
+    static final ItemSnapshot EMPTY = new ItemSnapshot(-1, Collections.emptyList());
+
+    private final long version;
+    private final List<Item> items;
+
+    ItemSnapshot(long version, List<Item> items) {
+        this.version = version;
+        this.items = Collections.unmodifiableList(items);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * ItemRepository.findPage와 같은 페이지를 목록의 일부(subList)로 반환한다. 새로 복사하지 않는다.
+     */
+    public ItemPage page(Long after, Long before, int pageSize) {
+        int from;
+        int to;
+        if (before != null) {
+            to = indexOf(before, false);
+            from = Math.max(to - pageSize, 0);
+        } else {
+            from = after == null ? 0 : indexOf(after, true);
+            to = Math.min(from + pageSize, items.size());
+        }
+        if (from >= to) {
+            return new ItemPage(Collections.emptyList(), pageSize, null, null);
+        }
+
+        List<Item> page = items.subList(from, to);
+        Long previousCursor = from > 0 ? page.get(0).getId() : null;
+        Long nextCursor = to < items.size() ? page.get(page.size() - 1).getId() : null;
+        return new ItemPage(page, pageSize, previousCursor, nextCursor);
+    }
+
+    /**
+     * 이진 탐색으로 위치를 찾는다.
+     * @param skipEqual true면 id보다 큰 첫번째 상품의 위치, false면 id 이상인 첫번째 상품의 위치
+     */
+    private int indexOf(long id, boolean skipEqual) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long midId = items.get(mid).getId();
+            if (midId < id || (skipEqual && midId == id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
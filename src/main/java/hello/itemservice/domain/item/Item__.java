@@ -1,5 +1,6 @@
 package hello.itemservice.domain.item;
 
+import hello.itemservice.validation.ArithmeticMin;
 import lombok.Data;
 //hibernate에서만 제공하는 validation, 즉 hibernate를 구현체로하는 validation만 사용가능.
 import org.hibernate.validator.constraints.Range;
@@ -19,6 +20,9 @@ import javax.validation.constraints.NotNull;
 */
 /*@ScriptAssert(lang = "javascript", script = "_this.price * _this.quantity >= 10000",
 message = "총합이 10,000원 넘게 입력해주세요.")*/
+//@ScriptAssert 대신 식을 미리 MethodHandle로 만들어 두는 @ArithmeticMin을 사용한다.
+//SaveCheck, UpdateCheck는 group sequence이므로 제약은 각 단계(Required -> Bounds -> Total)에 지정한다.
+@ArithmeticMin(expression = "price * quantity", min = 10000, groups = {SaveCheck.Total.class, UpdateCheck.Total.class})
 public class Item__ {
     /*
     ErrorCodeMessage Level Annotation별로 공통이다.
@@ -27,18 +31,18 @@ public class Item__ {
         Level3: (Annotation명).java.lang.String, Integer 타입일 경우 NotBlank.java.lang.Integer
         Level4: (Annotation명)
     */
-    @NotNull(groups = UpdateCheck.class)
+    @NotNull(groups = UpdateCheck.Required.class)
     private Long id;
 
-    @NotBlank(groups = {UpdateCheck.class, SaveCheck.class})
+    @NotBlank(groups = {UpdateCheck.Required.class, SaveCheck.Required.class})
     private String itemName;
 
-    @NotNull(groups = {UpdateCheck.class, SaveCheck.class})
-    @Range(min = 1000, max = 1000000, groups = {UpdateCheck.class, SaveCheck.class}) //1000~1000000사이의 값만 허용
+    @NotNull(groups = {UpdateCheck.Required.class, SaveCheck.Required.class})
+    @Range(min = 1000, max = 1000000, groups = {UpdateCheck.Bounds.class, SaveCheck.Bounds.class}) //1000~1000000사이의 값만 허용
     private Integer price;
 
-    @NotNull(groups = {UpdateCheck.class, SaveCheck.class})
-    @Max(value = 9999, groups = SaveCheck.class) //수정 요구사항 추가
+    @NotNull(groups = {UpdateCheck.Required.class, SaveCheck.Required.class})
+    @Max(value = 9999, groups = SaveCheck.Bounds.class) //수정 요구사항 추가
     private Integer quantity;
 
     public Item__() {
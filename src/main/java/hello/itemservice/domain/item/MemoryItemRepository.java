@@ -0,0 +1,365 @@
+package hello.itemservice.domain.item;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Map 기반 메모리 저장소. 기본 저장소(item.repository.type=memory)이다.
+ */
+public class MemoryItemRepository implements ItemRepository {
+
+    /*
+    여러 요청이 동시에 등록/수정하더라도 안전하도록 ConcurrentSkipListMap, AtomicLong을 사용한다.
+    HashMap + ++sequence 조합은 동시 요청시 id가 중복되거나 저장이 유실될 수 있다.
+    id 순으로 정렬되어 있으므로 snapshot(ItemSnapshot)도 id 순이 되어, cursor(id) 위치를 이진 탐색으로 찾는다.
+    */
+    private static final NavigableMap<Long, Item> store = new ConcurrentSkipListMap<>(); //static
+    private static final AtomicLong sequence = new AtomicLong(); //static
+    private static final ItemIndex index = new ItemIndex(); //static, 가격/상품명 검색용
+    private static final ItemNameIndex itemNames = new ItemNameIndex(); //static, 상품명 중복 확인용
+
+    /*
+    같은 상품의 교체(store)와 인덱스 갱신을 하나로 묶는 id별 lock.
+    lock 없이 교체 후 인덱스를 갱신하면, 같은 상품을 동시에 수정할 때 인덱스에 교체와 다른 순서로 반영되어
+    현재 값이 인덱스에서 빠질 수 있다. 다른 상품끼리는 거의 경쟁하지 않도록 id로 나눈다.
+    */
+    private static final Object[] itemLocks = newLocks(64); //static
+
+    /*
+    저장소가 바뀔 때마다 증가하는 번호와, 마지막으로 만든 전체 목록(snapshot).
+    변경이 없는 동안에는 모든 목록 조회가 같은 snapshot을 복사 없이 함께 읽는다.
+    저장된 Item은 수정하지 않고 항상 새 Item으로 교체하므로, snapshot 안의 Item도 중간에 바뀌지 않는다.
+    */
+    private static final AtomicLong modificationCount = new AtomicLong(); //static
+    private static final AtomicReference<ItemSnapshot> snapshot = new AtomicReference<>(ItemSnapshot.EMPTY); //static
+
+    //시작할 때마다 0부터 다시 쓰는 sequence, modificationCount를 이전 실행의 값과 구분한다.
+    private static volatile long generation = newGeneration(); //static
+
+    @Override
+    public Item save(Item item) {
+        itemNames.add(item.getItemName());
+        storeAll(List.of(item), Collections.singletonList(item.getItemName()));
+        return item;
+    }
+
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        List<String> added = new ArrayList<>(items.size());
+        for (Item item : items) {
+            itemNames.add(item.getItemName());
+            added.add(item.getItemName());
+        }
+        storeAll(items, added);
+        return items;
+    }
+
+    /**
+     * 상품명을 먼저 선점(putIfAbsent)한 뒤 저장한다. 같은 이름을 동시에 저장하면 하나만 선점에 성공한다.
+     */
+    @Override
+    public Item saveUniqueName(Item item) {
+        if (!itemNames.claim(item.getItemName())) {
+            throw new DuplicateItemNameException(item.getItemName());
+        }
+        storeAll(List.of(item), Collections.singletonList(item.getItemName()));
+        return item;
+    }
+
+    /**
+     * 모든 상품명을 먼저 선점한 뒤 저장한다. 하나라도 선점하지 못하면 선점한 이름을 모두 돌려놓는다.
+     * (돌려놓기 전까지는 같은 이름의 다른 저장이 잠시 실패할 수 있다.)
+     */
+    @Override
+    public List<Integer> saveAllUniqueName(List<Item> items) {
+        List<Integer> duplicates = new ArrayList<>();
+        List<String> claimed = new ArrayList<>(items.size());
+        for (int index = 0; index < items.size(); index++) {
+            String itemName = items.get(index).getItemName();
+            if (!itemNames.claim(itemName)) {
+                duplicates.add(index);
+            } else if (itemName != null) {
+                claimed.add(itemName);
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            for (String itemName : claimed) {
+                itemNames.remove(itemName);
+            }
+            return duplicates;
+        }
+        storeAll(items, claimed);
+        return duplicates;
+    }
+
+    /**
+     * id, version을 부여하고 beforeWrite를 호출한 뒤 저장소에 반영한다.
+     * beforeWrite가 실패하면 반영하지 않고, 먼저 등록한 상품명(names)을 돌려놓는다.
+     */
+    private void storeAll(List<Item> items, List<String> names) {
+        //호출한 쪽에서 item을 나중에 수정해도 저장소에 영향이 없도록 복사해서 보관한다.
+        List<Item> storeItems = new ArrayList<>(items.size());
+        for (Item item : items) {
+            item.setId(sequence.incrementAndGet());
+            item.setVersion(1L);
+            storeItems.add(copy(item));
+        }
+        try {
+            beforeWrite(storeItems);
+        } catch (RuntimeException e) {
+            for (String itemName : names) {
+                itemNames.remove(itemName);
+            }
+            throw e;
+        }
+        //새 id이므로 다른 요청과 겹치지 않는다. lock은 인덱스 갱신과 묶기 위해 사용한다.
+        for (Item storeItem : storeItems) {
+            synchronized (lockFor(storeItem.getId())) {
+                store.put(storeItem.getId(), storeItem);
+                index.add(storeItem);
+            }
+            modificationCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 저장/수정할 상품이 저장소에 보이기 직전에 호출된다. 예외가 나면 저장소에 반영하지 않는다.
+     * 수정은 해당 상품의 lock 안에서, 교체가 확실해진 뒤에만 호출되므로 같은 상품의 호출 순서는 반영 순서와 같다.
+     * (PersistentItemRepository가 WAL에 먼저 기록하는 용도로 사용한다.)
+     */
+    protected void beforeWrite(List<Item> items) {
+    }
+
+    @Override
+    public Item findById(Long id) {
+        return store.get(id);
+    }
+
+    @Override
+    public boolean existsByItemName(String itemName) {
+        return itemNames.contains(itemName);
+    }
+
+    /**
+     * 전체 상품 목록. 수정할 수 없는 목록이며, 변경이 없었다면 이전에 만든 목록을 그대로 반환한다.
+     */
+    @Override
+    public List<Item> findAll() {
+        return currentSnapshot().getItems();
+    }
+
+    /**
+     * 현재 version의 snapshot. 변경이 있었다면 새로 만들어 교체한다.
+     * 목록을 만드는 도중 들어온 변경은 다음 조회 때 다시 반영된다. (version이 목록 내용보다 항상 같거나 오래되었다.)
+     */
+    private ItemSnapshot currentSnapshot() {
+        ItemSnapshot current = snapshot.get();
+        long version = modificationCount.get();
+        if (current.getVersion() == version) {
+            return current;
+        }
+        ItemSnapshot next = new ItemSnapshot(version, new ArrayList<>(store.values()));
+        snapshot.compareAndSet(current, next);
+        return next;
+    }
+
+    /**
+     * id 순으로 size개 만큼 조회한다. 현재 snapshot의 일부(subList)를 반환하므로 요청마다 목록을 만들거나 복사하지 않는다.
+     * 변경 이후 처음 조회하는 요청만 snapshot을 새로 만들고(전체 복사 한번), 그 다음 조회들은 같은 snapshot을 함께 읽는다.
+     * @param after 이 id 다음부터 조회. null이면 처음부터
+     * @param before 이 id 이전의 size개를 조회. after보다 우선한다.
+     */
+    @Override
+    public ItemPage findPage(Long after, Long before, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return currentSnapshot().page(after, before, pageSize);
+    }
+
+    //마지막으로 만든 snapshot. 테스트에서 snapshot을 다시 만들었는지 확인하는 용도
+    ItemSnapshot publishedSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * 저장된 Item을 직접 수정하지 않고, 새 Item으로 교체(compare-and-set)한다.
+     * updateParam의 version이 있으면 저장된 version과 같을 때만 수정한다.
+     * @return 다른 요청이 먼저 수정하여 version이 맞지 않으면 false
+     */
+    @Override
+    public boolean update(Long itemId, Item updateParam) {
+        return update(itemId, updateParam, false);
+    }
+
+    @Override
+    public boolean updateUniqueName(Long itemId, Item updateParam) {
+        return update(itemId, updateParam, true);
+    }
+
+    /**
+     * 상품명이 바뀌면 새 이름을 먼저 등록(uniqueName이면 선점)하고, 교체에 성공한 뒤 이전 이름을 지운다.
+     * 교체에 실패하면 등록한 새 이름을 다시 지운다.
+     */
+    private boolean update(Long itemId, Item updateParam, boolean uniqueName) {
+        while (true) {
+            Item findItem = findById(itemId);
+            if (findItem == null) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + itemId);
+            }
+            if (updateParam.getVersion() != null && !updateParam.getVersion().equals(findItem.getVersion())) {
+                return false;
+            }
+
+            Item updateItem = copy(updateParam);
+            updateItem.setId(itemId);
+            updateItem.setVersion(findItem.getVersion() + 1);
+
+            boolean rename = !Objects.equals(findItem.getItemName(), updateItem.getItemName());
+            if (rename) {
+                if (!uniqueName) {
+                    itemNames.add(updateItem.getItemName());
+                } else if (!itemNames.claim(updateItem.getItemName())) {
+                    throw new DuplicateItemNameException(updateItem.getItemName());
+                }
+            }
+
+            //그 사이 다른 요청이 먼저 교체했다면 다시 읽어서 재시도한다.
+            //같은 상품의 교체는 모두 lock 안에서 하므로 확인한 뒤 바로 교체해도 된다.
+            boolean replaced = false;
+            try {
+                synchronized (lockFor(itemId)) {
+                    if (store.get(itemId) == findItem) {
+                        beforeWrite(List.of(updateItem));
+                        store.put(itemId, updateItem);
+                        index.update(findItem, updateItem);
+                        replaced = true;
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (rename) {
+                    itemNames.remove(updateItem.getItemName());
+                }
+                throw e;
+            }
+            if (replaced) {
+                if (rename) {
+                    itemNames.remove(findItem.getItemName());
+                }
+                modificationCount.incrementAndGet();
+                return true;
+            }
+            if (rename) {
+                itemNames.remove(updateItem.getItemName());
+            }
+        }
+    }
+
+    /**
+     * 가격 범위, 상품명 prefix로 검색한다. 인덱스에서 조건에 해당하는 부분만 읽으므로 결과 개수에 비례하는 비용이 든다.
+     * 상품명 prefix가 있으면 상품명 순, 없으면 가격 순으로 최대 limit개를 반환한다.
+     */
+    @Override
+    public List<Item> search(ItemSearchCond cond, int limit) {
+        int maxSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        if (cond.isEmpty()) {
+            return findPage(null, null, maxSize).getItems();
+        }
+
+        //인덱스 갱신 중에는 같은 id가 두번 나올 수 있으므로 중복을 제거한다.
+        LinkedHashSet<Long> visited = new LinkedHashSet<>();
+        List<Item> result = new ArrayList<>();
+        Iterator<Long> ids = itemIndex().candidateIds(cond);
+        while (ids.hasNext() && result.size() < maxSize) {
+            Long id = ids.next();
+            if (!visited.add(id)) {
+                continue;
+            }
+            //인덱스가 잠시 이전 값을 가리킬 수 있으므로 현재 값으로 다시 확인한다.
+            Item item = findById(id);
+            if (item != null && cond.matches(item)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 파일 등에서 읽은 상품을 id, version 그대로 되살린다. 이미 같거나 더 높은 version이 있으면 무시한다.
+     * 복구 시점(단일 스레드)에만 사용한다.
+     */
+    void restore(Item item) {
+        Item current = store.get(item.getId());
+        if (current != null && current.getVersion() >= item.getVersion()) {
+            return;
+        }
+        synchronized (lockFor(item.getId())) {
+            store.put(item.getId(), item);
+            if (current != null) {
+                index.update(current, item);
+            } else {
+                index.add(item);
+            }
+        }
+        if (current != null) {
+            itemNames.remove(current.getItemName());
+        }
+        itemNames.add(item.getItemName());
+        sequence.accumulateAndGet(item.getId(), Math::max);
+        modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public long modificationCount() {
+        return modificationCount.get();
+    }
+
+    @Override
+    public long generation() {
+        return generation;
+    }
+
+    static long newGeneration() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    protected ItemIndex itemIndex() {
+        return index;
+    }
+
+    @Override
+    public void clearStore() {
+        store.clear();
+        index.clear();
+        itemNames.clear();
+        modificationCount.incrementAndGet();
+        generation = newGeneration();
+    }
+
+    private static Object lockFor(long id) {
+        return itemLocks[(int) (id & (itemLocks.length - 1))];
+    }
+
+    private static Object[] newLocks(int size) {
+        Object[] locks = new Object[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private static Item copy(Item item) {
+        Item copy = new Item(item.getItemName(), item.getPrice(), item.getQuantity());
+        copy.setId(item.getId());
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+
+}
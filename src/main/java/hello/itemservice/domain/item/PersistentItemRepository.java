@@ -0,0 +1,199 @@
+package hello.itemservice.domain.item;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 메모리 저장소(MemoryItemRepository)에 write-ahead log를 더해 재시작해도 상품이 유지되는 저장소.
+ * 조회는 메모리에서 그대로 처리하고, 저장/수정은 메모리에 반영하기 전에 WAL에 먼저 기록한다.
+ * 기록이 snapshotInterval 만큼 쌓이면 별도 스레드에서 snapshot을 찍고 이전 WAL을 정리한다.
+ * item.repository.type=persistent 로 사용한다. (ItemRepositoryConfig)
+ */
+@Slf4j
+public class PersistentItemRepository extends MemoryItemRepository implements AutoCloseable {
+
+    private final ItemJournal journal;
+    private final long snapshotInterval;
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    /*
+    같은 generation 안에서 modificationCount는 저장된 상품 version의 합과 같다. (저장 +1, 수정 +1)
+    메모리의 번호는 재시작하면 0부터 다시 시작하므로, 복구한 version의 합에서 이어지도록 차이를 빼서 반환한다.
+    */
+    private volatile long modificationBase;
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PersistentItemRepository(Path dir, boolean fsync, long snapshotInterval) {
+        this.journal = new ItemJournal(dir, fsync);
+        this.snapshotInterval = snapshotInterval;
+
+        long start = System.nanoTime();
+        long records = journal.recover(this::restore);
+        modificationBase = super.modificationCount() - versionSum();
+        log.info("상품 저장소 복구 완료 dir={}, records={}, time={}ms",
+                dir, records, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public Item save(Item item) {
+        Item savedItem = write(() -> super.save(item));
+        afterWrite(1);
+        return savedItem;
+    }
+
+    @Override
+    public Item saveUniqueName(Item item) {
+        Item savedItem = write(() -> super.saveUniqueName(item));
+        afterWrite(1);
+        return savedItem;
+    }
+
+    //WAL에는 한번에 기록한다. (beforeWrite)
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        List<Item> savedItems = write(() -> super.saveAll(items));
+        afterWrite(items.size());
+        return savedItems;
+    }
+
+    @Override
+    public List<Integer> saveAllUniqueName(List<Item> items) {
+        List<Integer> duplicates = write(() -> super.saveAllUniqueName(items));
+        if (duplicates.isEmpty()) {
+            afterWrite(items.size());
+        }
+        return duplicates;
+    }
+
+    @Override
+    public boolean update(Long itemId, Item updateParam) {
+        if (!write(() -> super.update(itemId, updateParam))) {
+            return false;
+        }
+        afterWrite(1);
+        return true;
+    }
+
+    @Override
+    public boolean updateUniqueName(Long itemId, Item updateParam) {
+        if (!write(() -> super.updateUniqueName(itemId, updateParam))) {
+            return false;
+        }
+        afterWrite(1);
+        return true;
+    }
+
+    /**
+     * 메모리에 반영하기 직전에 WAL에 기록한다(write-ahead). 기록에 실패하면 메모리에도 반영되지 않는다.
+     * 수정은 상품별 lock 안에서 호출되므로 같은 상품의 기록 순서가 반영 순서와 같다.
+     */
+    @Override
+    protected void beforeWrite(List<Item> items) {
+        journal.appendAll(items);
+    }
+
+    /*
+    WAL 기록과 메모리 반영 사이에 세그먼트가 교체되면, 교체 이전 세그먼트의 기록이 snapshot(findAll)에 빠진 채로 삭제될 수 있다.
+    쓰기는 readLock, 세그먼트 교체와 clearStore는 writeLock을 잡아서 기록과 반영 사이에 교체되지 않도록 한다.
+    */
+    private <T> T write(Supplier<T> action) {
+        checkpointLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearStore() {
+        checkpointLock.writeLock().lock();
+        try {
+            super.clearStore();
+            journal.reset();
+            modificationBase = super.modificationCount();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long modificationCount() {
+        return super.modificationCount() - modificationBase;
+    }
+
+    /**
+     * 파일에 보관된 세대. 재시작해도 유지되고 clearStore하면 바뀐다.
+     */
+    @Override
+    public long generation() {
+        return journal.generation();
+    }
+
+    private long versionSum() {
+        long sum = 0;
+        for (Item item : findAll()) {
+            sum += item.getVersion();
+        }
+        return sum;
+    }
+
+    /**
+     * 세그먼트를 교체한 뒤 현재 저장소 전체를 snapshot으로 기록한다.
+     * 교체 이전 세그먼트의 기록은 모두 저장소에 반영된 뒤이므로 snapshot에 포함된다.
+     */
+    public void snapshot() {
+        long coveredSegmentNo;
+        checkpointLock.writeLock().lock();
+        try {
+            coveredSegmentNo = journal.rotate();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+        long start = System.nanoTime();
+        journal.snapshot(findAll(), coveredSegmentNo);
+        log.info("상품 snapshot 완료 time={}ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public void close() {
+        snapshotExecutor.shutdown();
+        try {
+            snapshotExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    private void afterWrite(int count) {
+        long before = writeCount.getAndAdd(count);
+        //snapshotInterval의 배수를 지났을 때만 snapshot을 찍는다.
+        if (before / snapshotInterval == (before + count) / snapshotInterval || !snapshotRunning.compareAndSet(false, true)) {
+            return;
+        }
+        snapshotExecutor.execute(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException e) {
+                log.error("상품 snapshot 실패", e);
+            } finally {
+                snapshotRunning.set(false);
+            }
+        });
+    }
+}
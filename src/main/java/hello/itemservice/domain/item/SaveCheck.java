@@ -1,4 +1,20 @@
 package hello.itemservice.domain.item;
 
+import javax.validation.GroupSequence;
+
+/**
+ * 등록 검증 순서: 필수 값 -> 범위 -> 복합 룰(가격 * 수량)
+ * 앞 단계에서 하나라도 실패하면 다음 단계의 제약은 검사하지 않는다.
+ */
+@GroupSequence({SaveCheck.Required.class, SaveCheck.Bounds.class, SaveCheck.Total.class})
 public interface SaveCheck {
+
+    interface Required {
+    }
+
+    interface Bounds {
+    }
+
+    interface Total {
+    }
 }
@@ -0,0 +1,29 @@
+package hello.itemservice.message;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.Charset;
+
+/**
+ * spring.messages.* 설정으로 PrecompiledMessageSource를 등록한다.
+ * 이름이 messageSource인 빈이 있으면 스프링 부트의 ResourceBundleMessageSource는 등록되지 않는다.
+ */
+@Configuration
+public class MessageSourceConfig {
+
+    @Bean
+    public MessageSource messageSource(@Value("${spring.messages.basename:messages}") String basename,
+                                       @Value("${spring.messages.encoding:UTF-8}") Charset encoding,
+                                       @Value("${spring.messages.always-use-message-format:false}") boolean alwaysUseMessageFormat,
+                                       @Value("${spring.messages.use-code-as-default-message:false}") boolean useCodeAsDefaultMessage) {
+        String[] basenames = StringUtils.commaDelimitedListToStringArray(StringUtils.trimAllWhitespace(basename));
+        PrecompiledMessageSource messageSource = new PrecompiledMessageSource(encoding, basenames);
+        messageSource.setAlwaysUseMessageFormat(alwaysUseMessageFormat);
+        messageSource.setUseCodeAsDefaultMessage(useCodeAsDefaultMessage);
+        return messageSource;
+    }
+}
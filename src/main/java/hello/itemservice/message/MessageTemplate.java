@@ -0,0 +1,155 @@
+package hello.itemservice.message;
+
+import java.text.DateFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 미리 분석해 둔 메시지 패턴. ex) "가격은 {0} ~ {1} 까지 허용합니다." -> ["가격은 ", " ~ ", " 까지 허용합니다."] + [0, 1]
+ * 상태를 바꾸지 않으므로 여러 스레드가 lock 없이 함께 사용한다.
+ *
+ * MessageFormat과 같은 결과를 만든다. ('' 는 ', '...' 는 그대로 출력, 정수는 locale의 천 단위 구분자 사용)
+ * {0,number,#.##} 처럼 형식이 지정된 패턴은 MessageFormat으로 처리한다.
+ */
+final class MessageTemplate {
+
+    //locale별 천 단위 구분자. 0이면 정수도 NumberFormat으로 처리한다.
+    private static final Map<Locale, Character> groupingSeparators = new ConcurrentHashMap<>();
+
+    private final String pattern;
+    private final String[] literals; //literals.length == argumentIndexes.length + 1
+    private final int[] argumentIndexes;
+
+    private MessageTemplate(String pattern, String[] literals, int[] argumentIndexes) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.argumentIndexes = argumentIndexes;
+    }
+
+    static MessageTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> argumentIndexes = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == '{' && !quoted) {
+                int end = pattern.indexOf('}', i);
+                int argumentIndex = end < 0 ? -1 : parseArgumentIndex(pattern.substring(i + 1, end));
+                if (argumentIndex < 0) {
+                    return new MessageTemplate(pattern, null, null);
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                argumentIndexes.add(argumentIndex);
+                i = end;
+            } else {
+                literal.append(c);
+            }
+        }
+        literals.add(literal.toString());
+
+        return new MessageTemplate(pattern, literals.toArray(new String[0]),
+                argumentIndexes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    //{0} 처럼 숫자만 있는 경우의 index. 그 외({0,number} 등)는 -1
+    private static int parseArgumentIndex(String argument) {
+        if (argument.isEmpty() || argument.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < argument.length(); i++) {
+            if (argument.charAt(i) < '0' || argument.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(argument);
+    }
+
+    String getPattern() {
+        return pattern;
+    }
+
+    String format(Object[] args, Locale locale) {
+        if (literals == null) {
+            return new MessageFormat(pattern, locale).format(args);
+        }
+        if (argumentIndexes.length == 0) {
+            return literals[0];
+        }
+
+        StringBuilder sb = new StringBuilder(pattern.length() + 16 * argumentIndexes.length);
+        for (int i = 0; i < argumentIndexes.length; i++) {
+            sb.append(literals[i]);
+            int index = argumentIndexes[i];
+            if (args == null || index >= args.length) {
+                sb.append('{').append(index).append('}');
+            } else {
+                appendArgument(sb, args[index], locale);
+            }
+        }
+        return sb.append(literals[argumentIndexes.length]).toString();
+    }
+
+    private static void appendArgument(StringBuilder sb, Object arg, Locale locale) {
+        if (arg == null) {
+            sb.append("null");
+        } else if (arg instanceof String) {
+            sb.append((String) arg);
+        } else if (arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte) {
+            appendInteger(sb, ((Number) arg).longValue(), locale);
+        } else if (arg instanceof Number) {
+            sb.append(NumberFormat.getInstance(locale).format(arg));
+        } else if (arg instanceof Date) {
+            sb.append(DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, locale).format(arg));
+        } else {
+            sb.append(arg);
+        }
+    }
+
+    //NumberFormat.getInstance(locale).format(value)와 같은 결과. ex) 1000000 -> 1,000,000
+    private static void appendInteger(StringBuilder sb, long value, Locale locale) {
+        char separator = groupingSeparators.computeIfAbsent(locale, MessageTemplate::groupingSeparator);
+        if (separator == 0 || value == Long.MIN_VALUE) {
+            sb.append(NumberFormat.getInstance(locale).format(value));
+            return;
+        }
+        if (value < 0) {
+            sb.append('-');
+            value = -value;
+        }
+        String digits = Long.toString(value);
+        int firstGroup = digits.length() % 3 == 0 ? 3 : digits.length() % 3;
+        sb.append(digits, 0, firstGroup);
+        for (int i = firstGroup; i < digits.length(); i += 3) {
+            sb.append(separator).append(digits, i, i + 3);
+        }
+    }
+
+    //숫자, 음수 부호, 구분 단위(3자리)가 기본과 다른 locale은 NumberFormat으로 처리한다.
+    private static char groupingSeparator(Locale locale) {
+        NumberFormat numberFormat = NumberFormat.getInstance(locale);
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        boolean standard = symbols.getZeroDigit() == '0'
+                && symbols.getMinusSign() == '-'
+                && numberFormat.isGroupingUsed()
+                && numberFormat.format(-1234567).equals("-1" + symbols.getGroupingSeparator() + "234"
+                + symbols.getGroupingSeparator() + "567");
+        return standard ? symbols.getGroupingSeparator() : 0;
+    }
+}
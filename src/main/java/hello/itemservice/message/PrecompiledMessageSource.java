@@ -0,0 +1,204 @@
+package hello.itemservice.message;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 시작할 때 messages.properties, errors.properties 등을 모두 읽어 locale별 메시지 표를 만들어 두는 MessageSource.
+ * 메시지 패턴은 미리 분석(MessageTemplate)해 두므로, 조회할 때는 표에서 찾아 인자만 채운다. (파일 조회, 패턴 분석, lock 없음)
+ *
+ * 찾는 순서는 ResourceBundleMessageSource와 같다. basename 순서대로 messages_en_US -> messages_en -> messages 를 찾는다.
+ * 단, 해당 locale의 파일이 없을 때 시스템 locale로 넘어가지 않고 기본 파일(messages.properties)을 사용한다.
+ * locale이 없으면(null) 기본 파일을 사용한다.
+ * 시작 이후 파일을 바꾸어도 다시 읽지 않는다.
+ */
+@Slf4j
+public class PrecompiledMessageSource extends AbstractMessageSource {
+
+    private static final int MAX_DEFAULT_MESSAGE_TEMPLATES = 256;
+
+    //locale -> (code -> 메시지). 만든 이후에는 바뀌지 않는다.
+    private final Map<Locale, Map<String, MessageTemplate>> messages;
+
+    //Bean Validation 기본 메시지 등 코드 없이 전달된 메시지의 분석 결과
+    private final Map<String, MessageTemplate> defaultMessageTemplates = new ConcurrentHashMap<>();
+
+    public PrecompiledMessageSource(Charset encoding, String... basenames) {
+        long start = System.nanoTime();
+        this.messages = load(encoding, basenames);
+        log.info("메시지 로딩 완료 basenames={}, locales={}, time={}ms", basenames, messages.keySet(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    @Nullable
+    protected String getMessageInternal(@Nullable String code, @Nullable Object[] args, @Nullable Locale locale) {
+        if (code == null) {
+            return null;
+        }
+        Locale messageLocale = locale != null ? locale : Locale.ROOT;
+        MessageTemplate template = lookup(code, messageLocale);
+        if (template == null) {
+            return getMessageFromParent(code, args, messageLocale);
+        }
+        if (!isAlwaysUseMessageFormat() && ObjectUtils.isEmpty(args)) {
+            return template.getPattern();
+        }
+        return template.format(resolveArguments(args, messageLocale), messageLocale);
+    }
+
+    //코드 없이 전달된 기본 메시지(default message)도 MessageFormat 대신 분석 결과를 재사용한다.
+    @Override
+    protected String formatMessage(String msg, @Nullable Object[] args, Locale locale) {
+        if (!isAlwaysUseMessageFormat() && ObjectUtils.isEmpty(args)) {
+            return msg;
+        }
+        MessageTemplate template = defaultMessageTemplates.get(msg);
+        if (template == null) {
+            template = MessageTemplate.compile(msg);
+            if (defaultMessageTemplates.size() < MAX_DEFAULT_MESSAGE_TEMPLATES) {
+                defaultMessageTemplates.putIfAbsent(msg, template);
+            }
+        }
+        try {
+            return template.format(resolveArguments(args, locale), locale != null ? locale : Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            //MessageFormat 형식이 아닌 기본 메시지는 그대로 반환한다. (MessageSourceSupport와 동일)
+            return msg;
+        }
+    }
+
+    //getMessageInternal을 사용하므로 호출되지 않는다. AbstractMessageSource 호환용
+    @Override
+    @Nullable
+    protected MessageFormat resolveCode(String code, Locale locale) {
+        MessageTemplate template = lookup(code, locale);
+        return template != null ? createMessageFormat(template.getPattern(), locale) : null;
+    }
+
+    @Nullable
+    private MessageTemplate lookup(String code, Locale locale) {
+        Map<String, MessageTemplate> table = messages.get(locale);
+        if (table == null && !locale.getCountry().isEmpty()) {
+            table = messages.get(new Locale(locale.getLanguage()));
+        }
+        if (table == null) {
+            table = messages.get(Locale.ROOT);
+        }
+        return table.get(code);
+    }
+
+    private static Map<Locale, Map<String, MessageTemplate>> load(Charset encoding, String[] basenames) {
+        //파일별 메시지. 같은 파일의 메시지는 여러 locale 표가 함께 사용한다.
+        Map<String, Map<String, MessageTemplate>> files = new HashMap<>();
+        Set<Locale> locales = new LinkedHashSet<>();
+        locales.add(Locale.ROOT);
+        for (String basename : basenames) {
+            String path = basename.replace('.', '/');
+            files.put(path + ".properties", compileFile(path + ".properties", encoding));
+            for (Locale locale : findLocales(path)) {
+                String filename = path + "_" + locale + ".properties";
+                files.put(filename, compileFile(filename, encoding));
+                locales.add(locale);
+                locales.add(new Locale(locale.getLanguage()));
+            }
+        }
+
+        Map<Locale, Map<String, MessageTemplate>> messages = new HashMap<>();
+        for (Locale locale : locales) {
+            Map<String, MessageTemplate> table = new HashMap<>();
+            for (String basename : basenames) {
+                for (String filename : candidateFilenames(basename.replace('.', '/'), locale)) {
+                    Map<String, MessageTemplate> file = files.get(filename);
+                    if (file != null) {
+                        file.forEach(table::putIfAbsent);
+                    }
+                }
+            }
+            messages.put(locale, Collections.unmodifiableMap(table));
+        }
+        return Collections.unmodifiableMap(messages);
+    }
+
+    //messages_en_US -> messages_en -> messages
+    private static List<String> candidateFilenames(String path, Locale locale) {
+        List<String> filenames = new ArrayList<>(3);
+        if (!locale.getCountry().isEmpty()) {
+            filenames.add(path + "_" + locale.getLanguage() + "_" + locale.getCountry() + ".properties");
+        }
+        if (!locale.getLanguage().isEmpty()) {
+            filenames.add(path + "_" + locale.getLanguage() + ".properties");
+        }
+        filenames.add(path + ".properties");
+        return filenames;
+    }
+
+    //classpath에 있는 messages_xx.properties, messages_xx_YY.properties 의 locale
+    private static Set<Locale> findLocales(String path) {
+        Set<Locale> locales = new LinkedHashSet<>();
+        String prefix = StringUtils.getFilename(path) + "_";
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath*:" + path + "_*.properties");
+            for (Resource resource : resources) {
+                String filename = resource.getFilename();
+                if (filename == null || !filename.startsWith(prefix)) {
+                    continue;
+                }
+                String suffix = filename.substring(prefix.length(), filename.length() - ".properties".length());
+                try {
+                    Locale locale = StringUtils.parseLocale(suffix);
+                    if (locale != null && !locale.getLanguage().isEmpty()) {
+                        locales.add(locale);
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.debug("locale이 아닌 메시지 파일은 무시합니다. filename={}", filename);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("메시지 파일을 찾을 수 없습니다. basename=" + path, e);
+        }
+        return locales;
+    }
+
+    private static Map<String, MessageTemplate> compileFile(String filename, Charset encoding) {
+        ClassPathResource resource = new ClassPathResource(filename);
+        if (!resource.exists()) {
+            return Collections.emptyMap();
+        }
+        try {
+            Properties properties = PropertiesLoaderUtils.loadProperties(new EncodedResource(resource, encoding));
+            Map<String, MessageTemplate> templates = new HashMap<>();
+            for (String code : properties.stringPropertyNames()) {
+                templates.put(code, MessageTemplate.compile(properties.getProperty(code)));
+            }
+            return templates;
+        } catch (IOException e) {
+            throw new UncheckedIOException("메시지 파일을 읽을 수 없습니다. filename=" + filename, e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package hello.itemservice.metrics;
+
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.validation.ItemValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 요청 처리 구간별 실행 시간 측정.
+ * 저장소(item.repository), ItemValidator(item.validator), Bean Validation(item.validation),
+ * 화면 렌더링(item.view.render) 시간을 Micrometer Timer로 기록한다. /actuator/metrics 에서 확인할 수 있다.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final javax.validation.Validator validator;
+
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry, javax.validation.Validator validator) {
+        this.meterRegistry = meterRegistry;
+        this.validator = validator;
+    }
+
+    /**
+     * ItemRepository, ItemValidator 빈을 메서드별 실행 시간을 기록하는 proxy로 감싼다.
+     * BeanPostProcessor는 다른 빈보다 먼저 만들어지므로 static으로 등록하고, MeterRegistry는 처음 기록할 때 꺼낸다.
+     */
+    @Bean
+    public static BeanPostProcessor itemMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ItemRepository) {
+                    return timedProxy(bean, new TimedMethodInterceptor("item.repository", meterRegistry));
+                }
+                if (bean instanceof ItemValidator) {
+                    return timedProxy(bean, new TimedMethodInterceptor("item.validator", meterRegistry));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Object timedProxy(Object bean, TimedMethodInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true); //ItemValidator는 구체 클래스 타입으로 주입받는다.
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    //@Validated 에 사용되는 전역 검증기
+    @Override
+    public Validator getValidator() {
+        return new TimedValidator(new SpringValidatorAdapter(validator), meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ViewRenderTimingInterceptor(meterRegistry))
+                .addPathPatterns("/validation/**");
+    }
+}
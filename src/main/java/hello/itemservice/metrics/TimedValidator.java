@@ -0,0 +1,63 @@
+package hello.itemservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation(@Validated) 실행 시간을 검증 대상 타입(target 태그)별로 item.validation Timer에 기록한다.
+ */
+public class TimedValidator implements SmartValidator {
+
+    private final SmartValidator delegate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<Class<?>, Timer> timers = new ConcurrentHashMap<>();
+
+    public TimedValidator(SmartValidator delegate, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        long start = System.nanoTime();
+        try {
+            delegate.validate(target, errors);
+        } finally {
+            record(target, start);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        long start = System.nanoTime();
+        try {
+            delegate.validate(target, errors, validationHints);
+        } finally {
+            record(target, start);
+        }
+    }
+
+    @Override
+    public void validateValue(Class<?> targetType, String fieldName, Object value, Errors errors, Object... validationHints) {
+        delegate.validateValue(targetType, fieldName, value, errors, validationHints);
+    }
+
+    private void record(Object target, long start) {
+        Timer timer = timers.computeIfAbsent(target.getClass(), type -> Timer.builder("item.validation")
+                .tag("target", type.getSimpleName())
+                .register(meterRegistry.getObject()));
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,56 @@
+package hello.itemservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * validation/v1~v5 화면의 렌더링 시간을 view 태그별로 item.view.render Timer에 기록한다.
+ * postHandle은 컨트롤러 호출 후 렌더링 직전, afterCompletion은 렌더링이 끝난 뒤 호출된다.
+ */
+public class ViewRenderTimingInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ViewRenderTimingInterceptor.class.getName() + ".start";
+    private static final String VIEW_ATTRIBUTE = ViewRenderTimingInterceptor.class.getName() + ".view";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ViewRenderTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        //redirect:, API 응답 등 템플릿을 그리지 않는 경우는 제외한다.
+        if (modelAndView == null || modelAndView.getViewName() == null
+                || !modelAndView.getViewName().startsWith("validation/")) {
+            return;
+        }
+        request.setAttribute(VIEW_ATTRIBUTE, modelAndView.getViewName());
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        String view = (String) request.getAttribute(VIEW_ATTRIBUTE);
+        Timer timer = timers.computeIfAbsent(view, name -> Timer.builder("item.view.render")
+                .tag("view", name)
+                .register(meterRegistry.getObject()));
+        timer.record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+    }
+}
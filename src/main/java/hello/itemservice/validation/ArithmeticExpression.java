@@ -0,0 +1,288 @@
+package hello.itemservice.validation;
+
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @ArithmeticMin의 식. ex) price * quantity, (price - 100) * quantity + 500
+ * 문법: expr = term (('+' | '-') term)*, term = factor ('*' factor)*, factor = '-' factor | '(' expr ')' | 정수 | 필드명
+ *
+ * parse로 한번 분석해 두고, 검증 대상 타입마다 compile로 MethodHandle 하나로 합친다.
+ * 계산은 Math.addExact, subtractExact, multiplyExact, negateExact를 사용하므로 long 범위를 넘으면 ArithmeticException이 발생한다.
+ */
+final class ArithmeticExpression {
+
+    private static final MethodHandle TO_LONG;
+    private static final MethodHandle ADD;
+    private static final MethodHandle SUBTRACT;
+    private static final MethodHandle MULTIPLY;
+    private static final MethodHandle NEGATE;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType binary = MethodType.methodType(long.class, long.class, long.class);
+        try {
+            TO_LONG = lookup.findStatic(ArithmeticExpression.class, "toLong",
+                    MethodType.methodType(long.class, Object.class));
+            ADD = lookup.findStatic(Math.class, "addExact", binary);
+            SUBTRACT = lookup.findStatic(Math.class, "subtractExact", binary);
+            MULTIPLY = lookup.findStatic(Math.class, "multiplyExact", binary);
+            NEGATE = lookup.findStatic(Math.class, "negateExact", MethodType.methodType(long.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String expression;
+    private final Node root;
+
+    private ArithmeticExpression(String expression, Node root) {
+        this.expression = expression;
+        this.root = root;
+    }
+
+    /**
+     * @throws IllegalArgumentException 문법이 맞지 않는 식
+     */
+    static ArithmeticExpression parse(String expression) {
+        Parser parser = new Parser(expression);
+        Node root = parser.parseExpression();
+        parser.skipWhitespace();
+        if (parser.position < expression.length()) {
+            throw parser.error();
+        }
+        return new ArithmeticExpression(expression, root);
+    }
+
+    /**
+     * type의 getter로 값을 읽어 계산하는 MethodHandle을 만든다.
+     * @throws IllegalArgumentException 필드가 없거나 정수 타입이 아닌 경우
+     */
+    Compiled compile(Class<?> type) {
+        List<MethodHandle> nullableGetters = new ArrayList<>();
+        MethodHandle evaluator = root.compile(type, nullableGetters);
+        return new Compiled(evaluator, nullableGetters.toArray(new MethodHandle[0]));
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) value).longValue();
+    }
+
+    /**
+     * 특정 타입에 맞게 만든 식. 상태를 바꾸지 않으므로 여러 스레드가 함께 사용한다.
+     */
+    static final class Compiled {
+
+        private final MethodHandle evaluator; //(Object)long
+        private final MethodHandle[] nullableGetters; //(Object)Object, Integer 등 null일 수 있는 필드
+
+        private Compiled(MethodHandle evaluator, MethodHandle[] nullableGetters) {
+            this.evaluator = evaluator;
+            this.nullableGetters = nullableGetters;
+        }
+
+        boolean hasNullOperand(Object target) {
+            try {
+                for (MethodHandle getter : nullableGetters) {
+                    if (getter.invokeExact(target) == null) {
+                        return true;
+                    }
+                }
+                return false;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        long evaluate(Object target) {
+            try {
+                return (long) evaluator.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private interface Node {
+        //(Object)long 타입의 MethodHandle
+        MethodHandle compile(Class<?> type, List<MethodHandle> nullableGetters);
+    }
+
+    private static final class Literal implements Node {
+        private final long value;
+
+        Literal(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public MethodHandle compile(Class<?> type, List<MethodHandle> nullableGetters) {
+            return MethodHandles.dropArguments(MethodHandles.constant(long.class, value), 0, Object.class);
+        }
+    }
+
+    private static final class Property implements Node {
+        private final String name;
+
+        Property(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public MethodHandle compile(Class<?> type, List<MethodHandle> nullableGetters) {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, name);
+            if (descriptor == null || descriptor.getReadMethod() == null) {
+                throw new IllegalArgumentException(type.getName() + "에 " + name + " 필드(getter)가 없습니다.");
+            }
+            Class<?> propertyType = descriptor.getPropertyType();
+            MethodHandle getter;
+            try {
+                getter = MethodHandles.publicLookup().unreflect(descriptor.getReadMethod());
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(type.getName() + "." + name + " getter에 접근할 수 없습니다.", e);
+            }
+
+            if (propertyType == int.class || propertyType == long.class
+                    || propertyType == short.class || propertyType == byte.class) {
+                return getter.asType(MethodType.methodType(long.class, Object.class));
+            }
+            if (propertyType == Integer.class || propertyType == Long.class
+                    || propertyType == Short.class || propertyType == Byte.class) {
+                MethodHandle objectGetter = getter.asType(MethodType.methodType(Object.class, Object.class));
+                nullableGetters.add(objectGetter);
+                return MethodHandles.filterReturnValue(objectGetter, TO_LONG);
+            }
+            throw new IllegalArgumentException(type.getName() + "." + name + "은 정수 타입이 아닙니다. type=" + propertyType);
+        }
+    }
+
+    private static final class Negate implements Node {
+        private final Node operand;
+
+        Negate(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public MethodHandle compile(Class<?> type, List<MethodHandle> nullableGetters) {
+            return MethodHandles.filterReturnValue(operand.compile(type, nullableGetters), NEGATE);
+        }
+    }
+
+    private static final class Binary implements Node {
+        private final MethodHandle operator;
+        private final Node left;
+        private final Node right;
+
+        Binary(MethodHandle operator, Node left, Node right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        //operator(left(target), right(target))
+        @Override
+        public MethodHandle compile(Class<?> type, List<MethodHandle> nullableGetters) {
+            MethodHandle combined = MethodHandles.filterArguments(operator, 0,
+                    left.compile(type, nullableGetters), right.compile(type, nullableGetters)); //(Object, Object)long
+            return MethodHandles.permuteArguments(combined, MethodType.methodType(long.class, Object.class), 0, 0);
+        }
+    }
+
+    private static final class Parser {
+        private final String expression;
+        private int position;
+
+        Parser(String expression) {
+            this.expression = expression;
+        }
+
+        Node parseExpression() {
+            Node node = parseTerm();
+            while (true) {
+                if (consume('+')) {
+                    node = new Binary(ADD, node, parseTerm());
+                } else if (consume('-')) {
+                    node = new Binary(SUBTRACT, node, parseTerm());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        Node parseTerm() {
+            Node node = parseFactor();
+            while (consume('*')) {
+                node = new Binary(MULTIPLY, node, parseFactor());
+            }
+            return node;
+        }
+
+        Node parseFactor() {
+            if (consume('-')) {
+                return new Negate(parseFactor());
+            }
+            if (consume('(')) {
+                Node node = parseExpression();
+                if (!consume(')')) {
+                    throw error();
+                }
+                return node;
+            }
+
+            skipWhitespace();
+            int start = position;
+            if (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+                while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+                    position++;
+                }
+                try {
+                    return new Literal(Long.parseLong(expression.substring(start, position)));
+                } catch (NumberFormatException e) {
+                    throw error();
+                }
+            }
+            if (position < expression.length() && Character.isJavaIdentifierStart(expression.charAt(position))) {
+                while (position < expression.length() && Character.isJavaIdentifierPart(expression.charAt(position))) {
+                    position++;
+                }
+                return new Property(expression.substring(start, position));
+            }
+            throw error();
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < expression.length() && expression.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+                position++;
+            }
+        }
+
+        IllegalArgumentException error() {
+            return new IllegalArgumentException("식을 해석할 수 없습니다. expression=" + expression + ", position=" + position);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
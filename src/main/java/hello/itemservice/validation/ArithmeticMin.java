@@ -0,0 +1,42 @@
+package hello.itemservice.validation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 여러 필드로 계산한 값이 min 이상이어야 한다. ex) @ArithmeticMin(expression = "price * quantity", min = 10000)
+ * expression에는 정수 필드명, 정수, +, -, *, 괄호를 사용할 수 있다.
+ *
+ * @ScriptAssert와 달리 식은 처음 한번만 분석해 MethodHandle로 만들어 두고, 검증할 때는 만들어 둔 MethodHandle을 실행만 한다.
+ * long으로 계산하며, 사용된 필드 중 null이 있으면 통과시킨다. (필드 검증(@NotNull)에서 처리)
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = ArithmeticMinValidator.class)
+@Repeatable(ArithmeticMin.List.class)
+public @interface ArithmeticMin {
+
+    String expression();
+
+    long min();
+
+    String message() default "{hello.itemservice.validation.ArithmeticMin.message}";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    @Documented
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface List {
+        ArithmeticMin[] value();
+    }
+}
@@ -0,0 +1,57 @@
+package hello.itemservice.validation;
+
+import org.hibernate.validator.constraintvalidation.HibernateConstraintValidatorContext;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @ArithmeticMin 검증기. 검증기는 애노테이션마다 한번 만들어져 재사용된다.
+ * 식은 initialize에서 분석하고, 검증 대상 타입별로 한번만 MethodHandle로 만든다.
+ */
+public class ArithmeticMinValidator implements ConstraintValidator<ArithmeticMin, Object> {
+
+    private ArithmeticExpression expression;
+    private long min;
+    private final Map<Class<?>, ArithmeticExpression.Compiled> compiled = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize(ArithmeticMin constraintAnnotation) {
+        this.expression = ArithmeticExpression.parse(constraintAnnotation.expression());
+        this.min = constraintAnnotation.min();
+    }
+
+    @Override
+    public boolean isValid(Object value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+        ArithmeticExpression.Compiled evaluator = compiled.computeIfAbsent(value.getClass(), expression::compile);
+        if (evaluator.hasNullOperand(value)) {
+            return true;
+        }
+
+        long result;
+        try {
+            result = evaluator.evaluate(value);
+        } catch (ArithmeticException e) {
+            //long 범위를 넘는 값은 계산할 수 없으므로 실패로 처리한다.
+            addMessageParameters(context, "-");
+            return false;
+        }
+        if (result >= min) {
+            return true;
+        }
+        addMessageParameters(context, ItemRules.format(result));
+        return false;
+    }
+
+    //메시지에서 사용할 값. {minValue}, {value}
+    private void addMessageParameters(ConstraintValidatorContext context, String value) {
+        HibernateConstraintValidatorContext hibernateContext = context.unwrap(HibernateConstraintValidatorContext.class);
+        hibernateContext.addMessageParameter("minValue", ItemRules.format(min));
+        hibernateContext.addMessageParameter("value", value);
+    }
+}
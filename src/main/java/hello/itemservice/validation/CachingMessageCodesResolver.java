@@ -0,0 +1,108 @@
+package hello.itemservice.validation;
+
+import org.springframework.validation.DefaultMessageCodesResolver;
+import org.springframework.validation.MessageCodesResolver;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DefaultMessageCodesResolver가 만든 메시지 코드를 (errorCode, objectName, field, fieldType) 별로 보관해 재사용한다.
+ * 같은 검증 오류가 반복되면 required.item.itemName, required.itemName ... 문자열을 다시 만들지 않는다.
+ *
+ * 보관 개수는 maximumSize로 제한한다. 가득 차면 더 보관하지 않고 매번 새로 만든다.
+ * (items[0].name 처럼 index가 포함된 필드명은 종류가 끝없이 늘어날 수 있다.)
+ * 반환된 배열은 여러 요청이 함께 사용하므로 수정하면 안된다.
+ */
+public class CachingMessageCodesResolver implements MessageCodesResolver {
+
+    private final MessageCodesResolver delegate;
+    private final int maximumSize;
+    private final Map<Key, String[]> cache = new ConcurrentHashMap<>();
+
+    public CachingMessageCodesResolver(int maximumSize) {
+        this(new DefaultMessageCodesResolver(), maximumSize);
+    }
+
+    public CachingMessageCodesResolver(MessageCodesResolver delegate, int maximumSize) {
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public String[] resolveMessageCodes(String errorCode, String objectName) {
+        Key key = new Key(false, errorCode, objectName, null, null);
+        String[] codes = cache.get(key);
+        if (codes == null) {
+            codes = delegate.resolveMessageCodes(errorCode, objectName);
+            put(key, codes);
+        }
+        return codes;
+    }
+
+    @Override
+    public String[] resolveMessageCodes(String errorCode, String objectName, String field, Class<?> fieldType) {
+        Key key = new Key(true, errorCode, objectName, field, fieldType);
+        String[] codes = cache.get(key);
+        if (codes == null) {
+            codes = delegate.resolveMessageCodes(errorCode, objectName, field, fieldType);
+            put(key, codes);
+        }
+        return codes;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    //동시에 넣는 경우 maximumSize를 조금 넘을 수 있으나, 같은 코드가 만들어지므로 문제되지 않는다.
+    private void put(Key key, String[] codes) {
+        if (cache.size() < maximumSize) {
+            cache.putIfAbsent(key, codes);
+        }
+    }
+
+    private static final class Key {
+        private final boolean fieldError;
+        private final String errorCode;
+        private final String objectName;
+        private final String field;
+        private final Class<?> fieldType;
+        private final int hash;
+
+        Key(boolean fieldError, String errorCode, String objectName, String field, Class<?> fieldType) {
+            this.fieldError = fieldError;
+            this.errorCode = errorCode;
+            this.objectName = objectName;
+            this.field = field;
+            this.fieldType = fieldType;
+            int hash = Objects.hashCode(errorCode);
+            hash = 31 * hash + Objects.hashCode(objectName);
+            hash = 31 * hash + Objects.hashCode(field);
+            hash = 31 * hash + Objects.hashCode(fieldType);
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return fieldError == key.fieldError
+                    && Objects.equals(errorCode, key.errorCode)
+                    && Objects.equals(objectName, key.objectName)
+                    && Objects.equals(field, key.field)
+                    && fieldType == key.fieldType;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package hello.itemservice.validation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 상품 검증 기준값. application.properties의 item.rules.* 로 변경할 수 있다.
+ */
+@Data
+@ConfigurationProperties("item.rules")
+public class ItemRuleProperties {
+
+    private int priceMin = 1000;
+    private int priceMax = 1000000;
+    private int quantityMax = 9999;
+    private long totalPriceMin = 10000;
+
+    //true면 첫번째 오류에서 검증을 멈춘다.
+    private boolean failFast = false;
+}
@@ -0,0 +1,162 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.domain.item.SaveCheck;
+import hello.itemservice.domain.item.UpdateCheck;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import hello.itemservice.web.validation.form.ItemUpdateForm;
+import org.hibernate.validator.HibernateValidatorConfiguration;
+import org.hibernate.validator.cfg.ConstraintMapping;
+import org.hibernate.validator.cfg.GenericConstraintDef;
+import org.hibernate.validator.cfg.defs.MaxDef;
+import org.hibernate.validator.cfg.defs.RangeDef;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.Errors;
+
+import java.util.Locale;
+
+/**
+ * 상품 검증 룰 테이블.
+ * 설정(ItemRuleProperties)을 한번 읽어 룰 배열로 만들어 두고, 검증할 때는 배열을 순서대로 확인만 한다.
+ * 오류 메시지 인자(Object[])도 미리 만들어 두므로, 검증에 성공하는 경우 요청마다 새로 만드는 객체가 없다.
+ *
+ * ItemValidator(V2 @InitBinder), V3/V4 컨트롤러의 복합 룰 검증(validateTotalPrice)이 같은 룰을 사용한다.
+ * 폼 객체(ItemSaveForm, ItemUpdateForm)의 범위(@Range, @Max)와 복합 룰(@ArithmeticMin)도 같은 기준값으로
+ * 스프링의 Validator에 등록한다. (addConstraintMappings, ValidationConfig) 그래서 V5, API 컨트롤러도 설정을 따른다.
+ */
+@Component
+@EnableConfigurationProperties(ItemRuleProperties.class)
+public class ItemRules {
+
+    private static final int ITEM_NAME = 0;
+    private static final int PRICE = 1;
+    private static final int QUANTITY = 2;
+
+    private static final int REQUIRED = 0;
+    private static final int RANGE = 1;
+    private static final int MAX = 2;
+
+    private final Rule[] fieldRules;
+    private final ItemRuleProperties properties;
+    private final long totalPriceMin;
+    private final String totalPriceMinArg;
+    private final boolean failFast;
+
+    public ItemRules(ItemRuleProperties properties) {
+        this.fieldRules = new Rule[]{
+                new Rule(ITEM_NAME, "itemName", REQUIRED, "required", 0, 0, null),
+                new Rule(PRICE, "price", RANGE, "range", properties.getPriceMin(), properties.getPriceMax(),
+                        new Object[]{format(properties.getPriceMin()), format(properties.getPriceMax())}),
+                new Rule(QUANTITY, "quantity", MAX, "max", 0, properties.getQuantityMax(),
+                        new Object[]{format(properties.getQuantityMax())}),
+        };
+        this.properties = properties;
+        this.totalPriceMin = properties.getTotalPriceMin();
+        this.totalPriceMinArg = format(properties.getTotalPriceMin());
+        this.failFast = properties.isFailFast();
+    }
+
+    /**
+     * 필드 룰을 순서대로 검증하고, 모두 통과한 경우에만 복합 룰(가격 * 수량)을 검증한다.
+     * @return 오류가 없으면 true
+     */
+    public boolean validate(String itemName, Integer price, Integer quantity, Errors errors) {
+        boolean valid = true;
+        for (Rule rule : fieldRules) {
+            if (!rule.test(itemName, price, quantity)) {
+                errors.rejectValue(rule.field, rule.code, rule.args, null);
+                valid = false;
+                if (failFast) {
+                    return false;
+                }
+            }
+        }
+        if (!valid) {
+            return false;
+        }
+        return validateTotalPrice(price, quantity, errors);
+    }
+
+    /**
+     * 특정 필드가 아닌 복합 룰 검증. 가격 * 수량의 합이 기준값 이상이어야 한다.
+     * int 곱셈은 넘칠 수 있으므로 long으로 계산한다. 값이 없으면 필드 검증에서 처리하므로 통과시킨다.
+     * @return 오류가 없으면 true
+     */
+    public boolean validateTotalPrice(Integer price, Integer quantity, Errors errors) {
+        if (price == null || quantity == null) {
+            return true;
+        }
+        long resultPrice = (long) price * quantity;
+        if (resultPrice < totalPriceMin) {
+            errors.reject("totalPriceMin", new Object[]{totalPriceMinArg, resultPrice}, null);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 폼 객체의 범위, 복합 룰 제약을 기준값으로 등록한다. 필수 값(@NotBlank, @NotNull)과 검증 순서(@GroupSequence)는 폼에 있다.
+     * 스프링 없이 Validator를 만들 때도(테스트 등) 이 메서드로 같은 제약을 등록한다.
+     */
+    public void addConstraintMappings(HibernateValidatorConfiguration configuration) {
+        ConstraintMapping mapping = configuration.createConstraintMapping();
+        mapping.type(ItemSaveForm.class)
+                .constraint(totalPriceMin(SaveCheck.Total.class))
+                .field("price")
+                .constraint(new RangeDef().min(properties.getPriceMin()).max(properties.getPriceMax())
+                        .groups(SaveCheck.Bounds.class))
+                .field("quantity")
+                .constraint(new MaxDef().value(properties.getQuantityMax()).groups(SaveCheck.Bounds.class));
+        //수정에서는 수량은 자유롭게 변경 가능.
+        mapping.type(ItemUpdateForm.class)
+                .constraint(totalPriceMin(UpdateCheck.Total.class))
+                .field("price")
+                .constraint(new RangeDef().min(properties.getPriceMin()).max(properties.getPriceMax())
+                        .groups(UpdateCheck.Bounds.class));
+        configuration.addMapping(mapping);
+    }
+
+    private GenericConstraintDef<ArithmeticMin> totalPriceMin(Class<?> group) {
+        return new GenericConstraintDef<>(ArithmeticMin.class)
+                .param("expression", "price * quantity")
+                .param("min", totalPriceMin)
+                .groups(group);
+    }
+
+    //오류 메시지에 표시할 값. ex) 1000000 -> 1,000,000 (@ArithmeticMin 메시지도 같은 형식을 사용한다.)
+    static String format(long value) {
+        return String.format(Locale.ROOT, "%,d", value);
+    }
+
+    private static final class Rule {
+        final int target;
+        final String field;
+        final int type;
+        final String code;
+        final long min;
+        final long max;
+        final Object[] args;
+
+        Rule(int target, String field, int type, String code, long min, long max, Object[] args) {
+            this.target = target;
+            this.field = field;
+            this.type = type;
+            this.code = code;
+            this.min = min;
+            this.max = max;
+            this.args = args;
+        }
+
+        boolean test(String itemName, Integer price, Integer quantity) {
+            if (type == REQUIRED) {
+                return StringUtils.hasText(itemName);
+            }
+            Integer value = target == PRICE ? price : quantity;
+            if (value == null) {
+                return false;
+            }
+            return type == RANGE ? value >= min && value <= max : value <= max;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package hello.itemservice.validation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 같은 상품명의 다른 상품이 저장소에 없어야 한다. 오류는 itemName 필드 오류로 등록된다.
+ * ex) 등록 폼 @UniqueItemName, 수정 폼 @UniqueItemName(id = "id")
+ *
+ * 수정 폼은 id로 자기 자신을 찾아, 상품명을 바꾸지 않았다면 통과시킨다.
+ * 저장소의 상품명 인덱스(ItemRepository.existsByItemName)로 확인하므로 상품 수와 관계없이 O(1)이다.
+ * 검증과 저장 사이에 같은 이름이 저장되는 경우는 ItemRepository.saveUniqueName, updateUniqueName이 막는다.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = UniqueItemNameValidator.class)
+public @interface UniqueItemName {
+
+    //상품명 필드
+    String itemName() default "itemName";
+
+    //수정 폼의 상품 id 필드. 없으면 등록으로 본다.
+    String id() default "";
+
+    String message() default "{hello.itemservice.validation.UniqueItemName.message}";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,59 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * @UniqueItemName 검증기.
+ * 스프링이 만드는 Validator(LocalValidatorFactoryBean)에서는 ItemRepository가 주입된다.
+ * 스프링 없이 만든 Validator(Validation.buildDefaultValidatorFactory)에서는 저장소가 없으므로 검사하지 않는다.
+ */
+public class UniqueItemNameValidator implements ConstraintValidator<UniqueItemName, Object> {
+
+    @Autowired(required = false)
+    private ItemRepository itemRepository;
+
+    private String itemNameProperty;
+    private String idProperty;
+
+    @Override
+    public void initialize(UniqueItemName constraintAnnotation) {
+        this.itemNameProperty = constraintAnnotation.itemName();
+        this.idProperty = constraintAnnotation.id();
+    }
+
+    @Override
+    public boolean isValid(Object value, ConstraintValidatorContext context) {
+        if (value == null || itemRepository == null) {
+            return true;
+        }
+        BeanWrapper beanWrapper = PropertyAccessorFactory.forBeanPropertyAccess(value);
+        Object itemName = beanWrapper.getPropertyValue(itemNameProperty);
+        if (!(itemName instanceof String) || !itemRepository.existsByItemName((String) itemName)) {
+            return true;
+        }
+
+        //수정 중인 상품 자신의 이름이라면 통과
+        if (!idProperty.isEmpty()) {
+            Object id = beanWrapper.getPropertyValue(idProperty);
+            if (id instanceof Long) {
+                Item item = itemRepository.findById((Long) id);
+                if (item != null && itemName.equals(item.getItemName())) {
+                    return true;
+                }
+            }
+        }
+
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(context.getDefaultConstraintMessageTemplate())
+                .addPropertyNode(itemNameProperty)
+                .addConstraintViolation();
+        return false;
+    }
+}
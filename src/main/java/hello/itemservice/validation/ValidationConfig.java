@@ -0,0 +1,41 @@
+package hello.itemservice.validation;
+
+import org.hibernate.validator.HibernateValidatorConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.validation.MessageInterpolatorFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.MessageCodesResolver;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ValidationConfig implements WebMvcConfigurer {
+
+    private final int messageCodesCacheSize;
+
+    public ValidationConfig(@Value("${item.validation.message-codes-cache-size:1024}") int messageCodesCacheSize) {
+        this.messageCodesCacheSize = messageCodesCacheSize;
+    }
+
+    @Bean
+    public CachingMessageCodesResolver messageCodesResolver() {
+        return new CachingMessageCodesResolver(messageCodesCacheSize);
+    }
+
+    //스프링 부트 기본 Validator 대신 등록한다. 폼 객체의 범위, 복합 룰 제약을 설정(item.rules.*) 값으로 추가한다.
+    @Bean
+    public LocalValidatorFactoryBean defaultValidator(ItemRules itemRules) {
+        LocalValidatorFactoryBean factoryBean = new LocalValidatorFactoryBean();
+        factoryBean.setMessageInterpolator(new MessageInterpolatorFactory().getObject());
+        factoryBean.setConfigurationInitializer(configuration ->
+                itemRules.addConstraintMappings((HibernateValidatorConfiguration) configuration));
+        return factoryBean;
+    }
+
+    //컨트롤러의 BindingResult(rejectValue, reject, Bean Validation 오류)가 메시지 코드를 만들 때 사용한다.
+    @Override
+    public MessageCodesResolver getMessageCodesResolver() {
+        return messageCodesResolver();
+    }
+}
@@ -0,0 +1,57 @@
+package hello.itemservice.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * /validation/** 의 첫 요청 처리 시간과 JVM 시작부터 첫 응답까지의 시간(time-to-first-request)을 로그로 남긴다.
+ * item.warmup.enabled 설정 전후를 비교하는 용도이므로 warm-up 사용 여부와 관계없이 동작한다.
+ */
+@Slf4j
+@Component
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+    private final AtomicBoolean first = new AtomicBoolean(true);
+    private volatile long firstRequestNanos = -1;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !first.get() || !request.getRequestURI().startsWith(request.getContextPath() + "/validation/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!first.compareAndSet(true, false)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            firstRequestNanos = System.nanoTime() - start;
+            long sinceStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            log.info("first request {} {} time={}ms, time-to-first-request={}ms", request.getMethod(),
+                    request.getRequestURI(), TimeUnit.NANOSECONDS.toMillis(firstRequestNanos), sinceStart);
+        }
+    }
+
+    /**
+     * 첫 요청 처리 시간(ns), 아직 요청이 없으면 -1
+     */
+    public long firstRequestNanos() {
+        return firstRequestNanos;
+    }
+}
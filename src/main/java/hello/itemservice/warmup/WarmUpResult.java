@@ -0,0 +1,24 @@
+package hello.itemservice.warmup;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Getter
+public class WarmUpResult {
+
+    //검증 대상 타입 -> group 목록
+    private final Map<Class<?>, Set<List<Class<?>>>> validationTargets;
+    private final List<String> templates;
+    //템플릿 이름 -> 분석 시간(ns). 처리 시작 ~ 첫 출력
+    private final Map<String, Long> templateParseNanos;
+
+    public WarmUpResult(Map<Class<?>, Set<List<Class<?>>>> validationTargets, Map<String, Long> templateParseNanos) {
+        this.validationTargets = validationTargets;
+        this.templates = new ArrayList<>(templateParseNanos.keySet());
+        this.templateParseNanos = templateParseNanos;
+    }
+}
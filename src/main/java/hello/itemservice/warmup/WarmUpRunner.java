@@ -0,0 +1,357 @@
+package hello.itemservice.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.ICacheManager;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.engine.TemplateModel;
+
+import javax.validation.GroupSequence;
+import javax.validation.Valid;
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 첫 요청에서 발생하는 지연(검증 메타데이터 분석, 객체 introspection, 템플릿 분석)을 애플리케이션이 준비 상태가 되기 전에 미리 처리한다.
+ * ApplicationRunner는 ApplicationReadyEvent(readiness ACCEPTING_TRAFFIC) 이전에 실행된다.
+ *
+ * - 컨트롤러에서 @Validated, @Valid로 검증하는 타입과 group을 찾아 빈 객체를 한번씩 검증한다. (메타데이터, ConstraintValidator, 메시지 보간)
+ *   group sequence는 앞 단계에서 실패하면 멈추므로 sequence의 group을 각각 따로 검증한다.
+ * - 같은 타입의 BeanWrapper introspection 결과를 만든다. (바인딩시 사용)
+ * - 컨트롤러가 반환하는 뷰 이름(ValidationItemControllerV1~V5의 addForm, editForm, item, items 등)을 클래스 파일의 문자열 상수에서 찾아
+ *   템플릿을 한번씩 처리해 분석 결과를 캐시에 넣는다. 템플릿 엔진은 템플릿 전체를 분석해서 캐시에 넣은 뒤 처리를 시작하므로,
+ *   첫 출력이 나오면 처리를 멈춘다. (요청 정보, 모델이 없어 th:field, @{...} 처리가 실패하기 전에 멈춘다.)
+ *   템플릿별 분석 시간은 처리를 시작한 때부터 첫 출력까지의 시간이다.
+ *   컨트롤러에서 반환하지 않는 템플릿은 item.warmup.templates에 경로 패턴으로 추가한다. (application.properties 참고)
+ *
+ * item.warmup.enabled=true 로 사용한다. 첫 요청 시간은 FirstRequestTimer가 기록한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "item.warmup.enabled", havingValue = "true")
+public class WarmUpRunner implements ApplicationRunner {
+
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final Validator validator;
+    private final ITemplateEngine templateEngine;
+    private final List<String> extraTypes;
+    private final String templateLocation;
+    private final String templatePrefix;
+    private final String templateSuffix;
+
+    private final ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+
+    //뷰 이름이 될 수 있는 문자열 상수. redirect:, forward: 등은 제외된다.
+    private static final Pattern VIEW_NAME = Pattern.compile("[\\w-]+(/[\\w-]+)*");
+
+    public WarmUpRunner(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                        Validator validator, ITemplateEngine templateEngine,
+                        @Value("${item.warmup.extra-types:hello.itemservice.domain.item.Item__}") List<String> extraTypes,
+                        @Value("${item.warmup.templates:}") String templateLocation,
+                        @Value("${spring.thymeleaf.prefix:classpath:/templates/}") String templatePrefix,
+                        @Value("${spring.thymeleaf.suffix:.html}") String templateSuffix) {
+        this.handlerMapping = handlerMapping;
+        this.validator = validator;
+        this.templateEngine = templateEngine;
+        this.extraTypes = extraTypes;
+        this.templateLocation = templateLocation;
+        this.templatePrefix = templatePrefix;
+        this.templateSuffix = templateSuffix;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    public WarmUpResult warmUp() {
+        long start = System.nanoTime();
+
+        Map<Class<?>, Set<List<Class<?>>>> validationTargets = findValidationTargets();
+        long validationStart = System.nanoTime();
+        for (Map.Entry<Class<?>, Set<List<Class<?>>>> entry : validationTargets.entrySet()) {
+            warmUpValidation(entry.getKey(), entry.getValue());
+        }
+        long validationNanos = System.nanoTime() - validationStart;
+
+        long templateStart = System.nanoTime();
+        Set<String> templates = findViewNames();
+        templates.addAll(findTemplates());
+        Map<String, Long> templateParseNanos = new LinkedHashMap<>();
+        for (String template : templates) {
+            templateParseNanos.put(template, warmUpTemplate(template));
+        }
+        long templateNanos = System.nanoTime() - templateStart;
+
+        WarmUpResult result = new WarmUpResult(validationTargets, templateParseNanos);
+        log.info("warm-up 완료 types={}, templates={}, validation={}ms, template={}ms, total={}ms",
+                validationTargets.size(), templateParseNanos.size(),
+                TimeUnit.NANOSECONDS.toMillis(validationNanos),
+                TimeUnit.NANOSECONDS.toMillis(templateNanos),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    //검증 대상 타입 -> 검증에 사용되는 group 목록
+    private Map<Class<?>, Set<List<Class<?>>>> findValidationTargets() {
+        Map<Class<?>, Set<List<Class<?>>>> targets = new LinkedHashMap<>();
+        Set<List<Class<?>>> allGroups = new LinkedHashSet<>();
+        allGroups.add(List.of(Default.class));
+
+        for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods().values()) {
+            for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+                List<Class<?>> groups = validationGroups(parameter);
+                if (groups != null) {
+                    targets.computeIfAbsent(parameter.getParameterType(), type -> new LinkedHashSet<>()).add(groups);
+                    allGroups.add(groups);
+                }
+            }
+        }
+
+        //컨트롤러에서 직접 사용하지 않는 타입은 사용된 모든 group으로 검증한다.
+        for (String extraType : extraTypes) {
+            try {
+                Class<?> type = ClassUtils.forName(extraType.trim(), getClass().getClassLoader());
+                targets.computeIfAbsent(type, t -> new LinkedHashSet<>()).addAll(allGroups);
+            } catch (ClassNotFoundException e) {
+                log.warn("warm-up 대상 타입을 찾을 수 없습니다. type={}", extraType);
+            }
+        }
+        return targets;
+    }
+
+    //@Validated, @Valid가 없으면 null
+    private List<Class<?>> validationGroups(MethodParameter parameter) {
+        Validated validated = parameter.getParameterAnnotation(Validated.class);
+        if (validated != null) {
+            return validated.value().length == 0 ? List.of(Default.class) : Arrays.asList(validated.value());
+        }
+        if (parameter.hasParameterAnnotation(Valid.class)) {
+            return List.of(Default.class);
+        }
+        return null;
+    }
+
+    private void warmUpValidation(Class<?> type, Set<List<Class<?>>> groupsSet) {
+        long start = System.nanoTime();
+        validator.getConstraintsForClass(type);
+
+        Object target;
+        try {
+            target = BeanUtils.instantiateClass(type);
+        } catch (RuntimeException e) {
+            log.debug("warm-up 대상 객체를 만들 수 없어 메타데이터만 준비합니다. type={}", type.getName());
+            return;
+        }
+
+        BeanWrapper beanWrapper = PropertyAccessorFactory.forBeanPropertyAccess(target);
+        beanWrapper.getPropertyDescriptors();
+
+        //빈 객체를 sequence 단위로 검증하면 필수 값 단계(@NotBlank, @NotNull)에서 멈추므로, sequence의 group을 각각 검증한다.
+        //필수 값 제약은 실패해서 메시지 보간까지, 범위, 복합 룰 제약은 값이 없어 통과하지만 ConstraintValidator 초기화까지 실행된다.
+        Set<Class<?>> memberGroups = new LinkedHashSet<>();
+        for (List<Class<?>> groups : groupsSet) {
+            for (Class<?> group : groups) {
+                addSequenceMembers(type, group, memberGroups);
+            }
+        }
+        for (Class<?> group : memberGroups) {
+            validator.validate(target, group);
+        }
+        log.debug("warm-up validation type={}, groups={}, time={}ms", type.getSimpleName(), memberGroups,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    //group sequence를 구성하는 group으로 펼친다. Default는 타입에 재정의된 sequence(@GroupSequence)가 있으면 그것을 사용한다.
+    private void addSequenceMembers(Class<?> type, Class<?> group, Set<Class<?>> memberGroups) {
+        GroupSequence sequence = group == Default.class
+                ? type.getAnnotation(GroupSequence.class) : group.getAnnotation(GroupSequence.class);
+        if (sequence == null || group == type) {
+            //재정의된 sequence에 포함된 타입 자신은 그 타입의 Default group 제약이다.
+            memberGroups.add(group);
+            return;
+        }
+        for (Class<?> member : sequence.value()) {
+            if (!memberGroups.contains(member)) {
+                addSequenceMembers(type, member, memberGroups);
+            }
+        }
+    }
+
+    //컨트롤러 클래스 파일의 문자열 상수 중 템플릿이 있는 것. (return "validation/v1/items" 등)
+    private Set<String> findViewNames() {
+        Set<Class<?>> controllerTypes = new LinkedHashSet<>();
+        for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods().values()) {
+            controllerTypes.add(ClassUtils.getUserClass(handlerMethod.getBeanType()));
+        }
+
+        Set<String> viewNames = new LinkedHashSet<>();
+        for (Class<?> controllerType : controllerTypes) {
+            for (String constant : findStringConstants(controllerType)) {
+                if (VIEW_NAME.matcher(constant).matches() && templateExists(constant)) {
+                    viewNames.add(constant);
+                }
+            }
+        }
+        return viewNames;
+    }
+
+    private Set<String> findStringConstants(Class<?> type) {
+        Set<String> constants = new LinkedHashSet<>();
+        String classFile = ClassUtils.convertClassNameToResourcePath(type.getName()) + ClassUtils.CLASS_FILE_SUFFIX;
+        Resource resource = resourceResolver.getResource("classpath:" + classFile);
+        try (InputStream in = resource.getInputStream()) {
+            new ClassReader(in).accept(new ClassVisitor(SpringAsmInfo.ASM_VERSION) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                        @Override
+                        public void visitLdcInsn(Object value) {
+                            if (value instanceof String) {
+                                constants.add((String) value);
+                            }
+                        }
+                    };
+                }
+            }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (IOException e) {
+            log.warn("warm-up 뷰 이름을 찾을 수 없습니다. type={}", type.getName(), e);
+        }
+        return constants;
+    }
+
+    private boolean templateExists(String viewName) {
+        return resourceResolver.getResource(templatePrefix + viewName + templateSuffix).exists();
+    }
+
+    private List<String> findTemplates() {
+        List<String> templates = new ArrayList<>();
+        if (!StringUtils.hasText(templateLocation)) {
+            return templates;
+        }
+        try {
+            for (Resource resource : resourceResolver.getResources(templateLocation)) {
+                String path = resource.getURL().getPath();
+                int index = path.lastIndexOf("/templates/");
+                if (index >= 0 && path.endsWith(".html")) {
+                    templates.add(path.substring(index + "/templates/".length(), path.length() - ".html".length()));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("warm-up 템플릿을 찾을 수 없습니다. location={}", templateLocation, e);
+        }
+        return templates;
+    }
+
+    //분석 시간(ns)을 반환한다. 처리 시작 ~ 첫 출력
+    private long warmUpTemplate(String template) {
+        FirstOutputWriter writer = new FirstOutputWriter();
+        long start = System.nanoTime();
+        try {
+            templateEngine.process(template, new Context(Locale.getDefault()), writer);
+        } catch (RuntimeException e) {
+            if (!FirstOutputWriter.isStop(e)) {
+                //첫 출력 전에 실패한 경우. 분석 결과가 캐시에 있다면 처리만 실패한 것이다.
+                if (isCached(template)) {
+                    log.debug("warm-up 템플릿 처리 실패 template={}", template, e);
+                } else {
+                    log.warn("warm-up 템플릿 분석 실패 template={}", template, e);
+                }
+            }
+        }
+        long end = writer.firstOutputNanos != 0 ? writer.firstOutputNanos : System.nanoTime();
+        long parseNanos = end - start;
+        log.info("warm-up template={}, parse={}us", template, TimeUnit.NANOSECONDS.toMicros(parseNanos));
+        return parseNanos;
+    }
+
+    //템플릿 캐시를 확인할 수 없으면(캐시를 사용하지 않는 경우 등) false
+    private boolean isCached(String template) {
+        if (!(templateEngine instanceof TemplateEngine)) {
+            return false;
+        }
+        ICacheManager cacheManager = ((TemplateEngine) templateEngine).getConfiguration().getCacheManager();
+        ICache<TemplateCacheKey, TemplateModel> templateCache = cacheManager == null ? null : cacheManager.getTemplateCache();
+        if (templateCache == null) {
+            return false;
+        }
+        for (TemplateCacheKey key : templateCache.keySet()) {
+            if (template.equals(key.getTemplate())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //첫 출력 시간을 기록하고 처리를 멈춘다. 템플릿 엔진은 writer의 IOException을 TemplateOutputException으로 감싸서 던진다.
+    private static class FirstOutputWriter extends Writer {
+
+        private long firstOutputNanos;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (firstOutputNanos == 0) {
+                firstOutputNanos = System.nanoTime();
+            }
+            throw new StopProcessingException();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        static boolean isStop(Throwable e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof StopProcessingException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class StopProcessingException extends IOException {
+    }
+}
@@ -0,0 +1,19 @@
+package hello.itemservice.web.validation;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * API 응답의 검증 오류 하나. {"field":"price","code":"Range","message":"..."}
+ * 글로벌 오류는 field가 없다. Idempotency-Key 응답처럼 보관해야 하는 경우 BindingResult 대신 사용한다.
+ */
+@Getter
+@RequiredArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ApiError {
+
+    private final String field;
+    private final String code;
+    private final String message;
+}
@@ -0,0 +1,59 @@
+package hello.itemservice.web.validation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.MessageSource;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 검증 오류를 API 응답용 JSON으로 기록한다.
+ * [{"field":"price","code":"Range","message":"가격, 1000 ~ 1000000 허용"}, {"code":"totalPriceMin","message":"..."}]
+ * 메시지는 errors.properties에서 요청 locale로 찾은 값이고, 글로벌 오류는 field가 없다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiErrorWriter {
+
+    private final MessageSource messageSource;
+
+    public void writeErrors(JsonGenerator gen, Errors errors, Locale locale) throws IOException {
+        gen.writeStartArray();
+        for (ObjectError error : errors.getAllErrors()) {
+            gen.writeStartObject();
+            if (error instanceof FieldError) {
+                gen.writeStringField("field", ((FieldError) error).getField());
+            }
+            gen.writeStringField("code", error.getCode());
+            gen.writeStringField("message", resolveMessage(error, locale));
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    //응답을 보관할 때 사용한다. 메시지는 지금 locale로 찾아 둔다.
+    public List<ApiError> toApiErrors(Errors errors, Locale locale) {
+        List<ApiError> apiErrors = new ArrayList<>(errors.getErrorCount());
+        for (ObjectError error : errors.getAllErrors()) {
+            String field = error instanceof FieldError ? ((FieldError) error).getField() : null;
+            apiErrors.add(new ApiError(field, error.getCode(), resolveMessage(error, locale)));
+        }
+        return apiErrors;
+    }
+
+    public String resolveMessage(ObjectError error, Locale locale) {
+        try {
+            return messageSource.getMessage(error, locale);
+        } catch (NoSuchMessageException e) {
+            return error.getDefaultMessage();
+        }
+    }
+}
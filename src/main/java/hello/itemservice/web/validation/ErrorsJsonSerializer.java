@@ -0,0 +1,32 @@
+package hello.itemservice.web.validation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.validation.Errors;
+
+import java.io.IOException;
+
+/**
+ * 컨트롤러가 Errors(BindingResult)를 반환하면 ApiErrorWriter 형식으로 바로 기록한다.
+ * FieldError 전체(codes, arguments, bindingFailure 등)를 직렬화하지 않고 field, code, 요청 locale로 찾은 message만 남긴다.
+ */
+@JsonComponent
+@RequiredArgsConstructor
+public class ErrorsJsonSerializer extends JsonSerializer<Errors> {
+
+    private final ApiErrorWriter apiErrorWriter;
+
+    @Override
+    public void serialize(Errors errors, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        apiErrorWriter.writeErrors(gen, errors, LocaleContextHolder.getLocale());
+    }
+
+    @Override
+    public Class<Errors> handledType() {
+        return Errors.class;
+    }
+}
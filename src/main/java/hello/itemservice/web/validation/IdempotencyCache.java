@@ -0,0 +1,145 @@
+package hello.itemservice.web.validation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Idempotency-Key 헤더로 들어온 요청의 첫 처리 결과를 보관한다.
+ * 같은 키로 다시 들어온 요청은 요청 내용이 같으면 보관한 결과를 그대로 응답하고, 다르면 키를 잘못 재사용한 것으로 본다.
+ * 처리를 시작하기 전에 처리 중(pending) 결과를 먼저 넣으므로, 같은 키로 동시에 들어온 요청 중 하나만 처리한다.
+ *
+ * 최대 maximumSize개를 ttl 동안만 보관한다. 넣은 순서대로 만료되므로 가장 오래된 키부터 내보낸다.
+ * item.api.idempotency.maximum-size, item.api.idempotency.ttl-seconds 로 설정한다.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final int maximumSize;
+    private final long ttlNanos;
+
+    //넣은 순서(insertion order)를 유지하므로 가장 앞의 키가 가장 먼저 만료된다.
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    public IdempotencyCache(@Value("${item.api.idempotency.maximum-size:10000}") int maximumSize,
+                            @Value("${item.api.idempotency.ttl-seconds:600}") long ttlSeconds) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize는 1 이상이어야 합니다. maximumSize=" + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyCache.this.maximumSize || eldest.getValue().isExpired(System.nanoTime());
+            }
+        };
+    }
+
+    /**
+     * @return 만료되지 않은 결과(처리 중 포함), 없으면 null
+     */
+    public Entry get(String key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * 키가 없으면 처리 중 결과를 넣는다. 넣은 요청은 처리한 뒤 complete, 실패하면 remove를 호출해야 한다.
+     * @return 이미 보관된 결과(처리 중 포함). 새로 넣었으면 null
+     */
+    public Entry putIfAbsent(String key, Object request) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                hitCount.increment();
+                return entry;
+            }
+            //만료된 키를 다시 넣으면 순서가 바뀌지 않으므로 지우고 넣는다.
+            entries.remove(key);
+            entries.put(key, new Entry(request, now + ttlNanos));
+            return null;
+        }
+    }
+
+    /**
+     * putIfAbsent로 넣은 처리 중 결과를 채운다. 그 사이 만료되어 빠졌다면 보관하지 않는다.
+     */
+    public void complete(String key, Object response) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isPending()) {
+                entry.response = response;
+            }
+        }
+    }
+
+    /**
+     * 처리에 실패하면 다음 재시도가 다시 처리할 수 있도록 처리 중 결과를 지운다.
+     */
+    public void remove(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isPending()) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public static final class Entry {
+
+        private final Object request;
+        //처리 중이면 null
+        private volatile Object response;
+        private final long expiresAt;
+
+        private Entry(Object request, long expiresAt) {
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+
+        //같은 키로 다른 내용을 보냈는지 확인한다.
+        public boolean matches(Object request) {
+            return this.request.equals(request);
+        }
+
+        public boolean isPending() {
+            return response == null;
+        }
+
+        public Object getResponse() {
+            return response;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package hello.itemservice.web.validation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.MessageCodesResolver;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품 목록 전체를 병렬로 검증한다. 검증은 단건 등록(ValidationApiController.addItem)과 같은 Bean Validation(복합 룰 @ArithmeticMin 포함)이다.
+ * 검증은 이 클래스가 가진 ForkJoinPool(item.api.batch-validate.parallelism, 기본 CPU 수)에서만 실행되므로
+ * 큰 요청이 여러개 들어와도 요청 스레드나 공용 풀(ForkJoinPool.commonPool)을 점유하지 않는다.
+ * 검증 메시지(errors.properties에 코드가 없는 경우의 기본 메시지)가 요청 locale을 따르도록 풀의 스레드에도 요청의 LocaleContext를 설정한다.
+ *
+ * 응답은 실패한 상품만 index와 함께 기록한다. save=true 이면 모든 상품이 검증에 성공한 경우에만 저장한다.
+ * {"valid":998,"invalid":2,"saved":0,"results":[{"index":3,"errors":[{"field":"price","code":"Range","message":"..."}]}]}
+ */
+@Slf4j
+@Component
+public class ItemBatchValidator implements AutoCloseable {
+
+    private final SpringValidatorAdapter validator;
+    private final MessageCodesResolver messageCodesResolver;
+    private final ItemRepository itemRepository;
+    private final ApiErrorWriter apiErrorWriter;
+    private final ForkJoinPool pool;
+    private final int maximumSize;
+
+    public ItemBatchValidator(Validator validator, MessageCodesResolver messageCodesResolver,
+                              ItemRepository itemRepository, ApiErrorWriter apiErrorWriter,
+                              @Value("${item.api.batch-validate.parallelism:0}") int parallelism,
+                              @Value("${item.api.batch-validate.maximum-size:10000}") int maximumSize) {
+        this.validator = new SpringValidatorAdapter(validator);
+        this.messageCodesResolver = messageCodesResolver;
+        this.itemRepository = itemRepository;
+        this.apiErrorWriter = apiErrorWriter;
+        this.maximumSize = maximumSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("item-batch-validate-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * 요청 본문의 JSON 배열을 원소 하나씩 읽는다. maximumSize개를 넘으면 나머지는 읽지 않고 null을 반환하므로
+     * 큰 요청도 maximumSize + 1개 까지만 객체로 만든다.
+     * @throws com.fasterxml.jackson.core.JsonProcessingException 배열이 아니거나 JSON 형식, 타입이 맞지 않는 경우
+     */
+    public List<ItemSaveForm> read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "상품 목록은 JSON 배열이어야 합니다.");
+        }
+        List<ItemSaveForm> forms = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (forms.size() == maximumSize) {
+                return null;
+            }
+            //null 원소는 그대로 넣고 검증에서 실패 처리한다.
+            forms.add(parser.readValueAs(ItemSaveForm.class));
+        }
+        return forms;
+    }
+
+    /**
+     * 개수 제한은 read에서 확인한다.
+     * @return index 순서의 검증 결과
+     */
+    public BindingResult[] validate(List<ItemSaveForm> forms) {
+        BindingResult[] results = new BindingResult[forms.size()];
+        //작업 하나가 너무 작으면 나누는 비용이 더 크므로 스레드당 4개 정도로 나눈다.
+        int threshold = Math.max(16, forms.size() / (pool.getParallelism() * 4));
+        pool.invoke(new ValidateTask(forms, results, 0, forms.size(), threshold, LocaleContextHolder.getLocaleContext()));
+        return results;
+    }
+
+    public void validate(List<ItemSaveForm> forms, boolean save, JsonGenerator gen, Locale locale) throws IOException {
+        long start = System.nanoTime();
+        BindingResult[] results = validate(forms);
+
+        int invalid = 0;
+        for (BindingResult result : results) {
+            if (result.hasErrors()) {
+                invalid++;
+            }
+        }
+
+        int saved = 0;
+        if (save && invalid == 0) {
+            List<Item> items = new ArrayList<>(forms.size());
+            for (ItemSaveForm form : forms) {
+                items.add(new Item(form.getItemName(), form.getPrice(), form.getQuantity()));
+            }
+            //@UniqueItemName은 상품마다 저장소만 확인하므로, 목록 안의 중복과 검증 이후 저장된 이름은 저장하면서 확인한다.
+            List<Integer> duplicates = itemRepository.saveAllUniqueName(items);
+            for (int index : duplicates) {
+                results[index].rejectValue("itemName", "UniqueItemName");
+            }
+            invalid = duplicates.size();
+            saved = duplicates.isEmpty() ? items.size() : 0;
+        }
+
+        gen.writeStartObject();
+        gen.writeNumberField("valid", forms.size() - invalid);
+        gen.writeNumberField("invalid", invalid);
+        gen.writeNumberField("saved", saved);
+        gen.writeArrayFieldStart("results");
+        for (int index = 0; index < results.length; index++) {
+            if (results[index].hasErrors()) {
+                gen.writeStartObject();
+                gen.writeNumberField("index", index);
+                gen.writeFieldName("errors");
+                apiErrorWriter.writeErrors(gen, results[index], locale);
+                gen.writeEndObject();
+            }
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+        log.info("상품 일괄 검증 size={}, invalid={}, saved={}, time={}ms", forms.size(), invalid, saved,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private BindingResult validate(ItemSaveForm form) {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(form, "itemSaveForm");
+        bindingResult.setMessageCodesResolver(messageCodesResolver);
+        if (form == null) {
+            //JSON 배열의 null 원소
+            bindingResult.reject("required");
+            return bindingResult;
+        }
+        validator.validate(form, bindingResult);
+        return bindingResult;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    //[from, to) 구간을 threshold 이하가 될 때까지 나눠서 검증한다. 각 작업은 results의 자기 구간에만 기록한다.
+    private class ValidateTask extends RecursiveAction {
+
+        private final List<ItemSaveForm> forms;
+        private final BindingResult[] results;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final LocaleContext localeContext;
+
+        ValidateTask(List<ItemSaveForm> forms, BindingResult[] results, int from, int to, int threshold,
+                     LocaleContext localeContext) {
+            this.forms = forms;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.localeContext = localeContext;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                //풀의 스레드는 여러 요청이 함께 사용하므로 끝나면 원래 값으로 돌려놓는다.
+                LocaleContext previous = LocaleContextHolder.getLocaleContext();
+                LocaleContextHolder.setLocaleContext(localeContext);
+                try {
+                    for (int i = from; i < to; i++) {
+                        results[i] = validate(forms.get(i));
+                    }
+                } finally {
+                    LocaleContextHolder.setLocaleContext(previous);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ValidateTask(forms, results, from, middle, threshold, localeContext),
+                    new ValidateTask(forms, results, middle, to, threshold, localeContext));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package hello.itemservice.web.validation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.MessageCodesResolver;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 상품 목록을 스트리밍으로 읽으면서 한건씩 검증하고, 검증에 성공한 상품은 batchSize 단위로 저장한다.
+ * 저장은 상품명을 선점하면서 하므로(saveAllUniqueName) 요청 안에서, 또는 다른 요청과 상품명이 겹치는 상품은 실패(UniqueItemName)로 기록한다.
+ * 요청 본문은 JSON 배열([{...}, {...}]) 또는 한줄에 하나씩 적은 NDJSON({...}\n{...}) 모두 가능하다.
+ *
+ * 응답은 NDJSON으로 실패한 상품마다 한줄씩 바로 내보내고, 마지막 줄에 전체 결과를 기록한다.
+ * {"index":3,"errors":[{"field":"price","code":"Range","message":"..."}]}
+ * {"saved":998,"failed":2}
+ * 요청, 응답 모두 전체를 메모리에 올리지 않는다.
+ */
+@Slf4j
+@Component
+public class ItemBulkImporter {
+
+    private final ObjectMapper objectMapper;
+    private final SpringValidatorAdapter validator;
+    private final ItemRepository itemRepository;
+    private final ApiErrorWriter apiErrorWriter;
+    private final MessageCodesResolver messageCodesResolver;
+    private final int batchSize;
+
+    public ItemBulkImporter(ObjectMapper objectMapper, Validator validator, ItemRepository itemRepository,
+                            ApiErrorWriter apiErrorWriter,
+                            MessageCodesResolver messageCodesResolver,
+                            @Value("${item.api.bulk.batch-size:500}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.validator = new SpringValidatorAdapter(validator);
+        this.itemRepository = itemRepository;
+        this.apiErrorWriter = apiErrorWriter;
+        this.messageCodesResolver = messageCodesResolver;
+        this.batchSize = batchSize;
+    }
+
+    public void importItems(InputStream in, OutputStream out, Locale locale) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+             MappingIterator<ItemSaveForm> forms = objectMapper.readerFor(ItemSaveForm.class).readValues(in)) {
+            gen.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+            List<Item> batch = new ArrayList<>(batchSize);
+            List<Long> batchIndexes = new ArrayList<>(batchSize);
+            long index = 0;
+            long saved = 0;
+            long failed = 0;
+            while (true) {
+                ItemSaveForm form;
+                try {
+                    if (!forms.hasNextValue()) {
+                        break;
+                    }
+                    form = forms.nextValue();
+                } catch (JsonParseException e) {
+                    //JSON 형식 자체가 깨졌다면 더 이상 읽을 수 없다.
+                    writeFailure(gen, index, "invalidJson", e.getOriginalMessage(), locale);
+                    failed++;
+                    break;
+                } catch (JsonMappingException e) {
+                    //숫자 자리에 문자가 오는 등 타입이 맞지 않으면 해당 상품만 실패 처리하고 다음 상품을 읽는다.
+                    writeFailure(gen, index++, "typeMismatch", e.getOriginalMessage(), locale);
+                    failed++;
+                    continue;
+                }
+
+                BindingResult bindingResult = validate(form);
+                if (bindingResult.hasErrors()) {
+                    writeFailure(gen, index++, bindingResult, locale);
+                    failed++;
+                    continue;
+                }
+
+                batch.add(new Item(form.getItemName(), form.getPrice(), form.getQuantity()));
+                batchIndexes.add(index++);
+                if (batch.size() == batchSize) {
+                    int pending = batch.size();
+                    int stored = save(batch, batchIndexes, gen, locale);
+                    saved += stored;
+                    failed += pending - stored;
+                }
+            }
+            int pending = batch.size();
+            int stored = save(batch, batchIndexes, gen, locale);
+            saved += stored;
+            failed += pending - stored;
+
+            gen.writeStartObject();
+            gen.writeNumberField("saved", saved);
+            gen.writeNumberField("failed", failed);
+            gen.writeEndObject();
+            log.info("상품 일괄 등록 saved={}, failed={}", saved, failed);
+        }
+    }
+
+    /**
+     * 단건 등록(ValidationApiController.addItem)과 같은 Bean Validation(복합 룰 @ArithmeticMin 포함)을 한다.
+     */
+    private BindingResult validate(ItemSaveForm form) {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(form, "itemSaveForm");
+        bindingResult.setMessageCodesResolver(messageCodesResolver);
+        validator.validate(form, bindingResult);
+        return bindingResult;
+    }
+
+    /**
+     * 상품명이 겹치는 상품을 실패로 기록하고 빼면서, 나머지를 모두 저장할 때까지 다시 시도한다.
+     */
+    private int save(List<Item> batch, List<Long> batchIndexes, JsonGenerator gen, Locale locale) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Integer> duplicates = itemRepository.saveAllUniqueName(batch);
+        while (!duplicates.isEmpty()) {
+            for (int i = duplicates.size() - 1; i >= 0; i--) {
+                int position = duplicates.get(i);
+                writeDuplicate(gen, batchIndexes.get(position), batch.get(position), locale);
+                batch.remove(position);
+                batchIndexes.remove(position);
+            }
+            duplicates = itemRepository.saveAllUniqueName(batch);
+        }
+        int size = batch.size();
+        batch.clear();
+        batchIndexes.clear();
+        //저장할 때마다 그동안 쌓인 실패 결과를 내보낸다.
+        gen.flush();
+        return size;
+    }
+
+    private void writeFailure(JsonGenerator gen, long index, BindingResult bindingResult, Locale locale) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("index", index);
+        gen.writeFieldName("errors");
+        apiErrorWriter.writeErrors(gen, bindingResult, locale);
+        gen.writeEndObject();
+    }
+
+    private void writeDuplicate(JsonGenerator gen, long index, Item item, Locale locale) throws IOException {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(item, "itemSaveForm");
+        bindingResult.setMessageCodesResolver(messageCodesResolver);
+        bindingResult.rejectValue("itemName", "UniqueItemName");
+        writeFailure(gen, index, bindingResult, locale);
+    }
+
+    //JSON을 읽다가 실패한 경우. errors.properties에 code가 없으면 Jackson의 오류 메시지를 그대로 사용한다.
+    private void writeFailure(JsonGenerator gen, long index, String code, String defaultMessage, Locale locale) throws IOException {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(null, "itemSaveForm");
+        bindingResult.setMessageCodesResolver(messageCodesResolver);
+        bindingResult.reject(code, defaultMessage);
+        writeFailure(gen, index, bindingResult, locale);
+    }
+}
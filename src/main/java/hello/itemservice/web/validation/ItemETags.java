@@ -0,0 +1,28 @@
+package hello.itemservice.web.validation;
+
+import hello.itemservice.domain.item.Item;
+
+import java.util.Locale;
+
+/**
+ * 상품 목록/상세 화면의 ETag.
+ * 목록은 저장소 전체의 변경 번호(ItemRepository.modificationCount), 상세는 상품의 id, version으로 만든다.
+ * 두 값 모두 재시작하거나 clearStore한 뒤 다른 데이터로 같은 값이 다시 나올 수 있으므로 저장소의 세대(ItemRepository.generation)를 포함한다.
+ * 같은 데이터도 요청 locale에 따라 메시지가 다르게 그려지므로 locale을 포함한다.
+ *
+ * 컨트롤러는 WebRequest.checkNotModified로 If-None-Match를 확인하고, 같으면 모델/뷰 없이 304로 응답한다.
+ */
+final class ItemETags {
+
+    private ItemETags() {
+    }
+
+    static String items(long generation, long modificationCount, Locale locale) {
+        return "\"items-" + Long.toHexString(generation) + "-" + modificationCount + "-" + locale.toLanguageTag() + "\"";
+    }
+
+    static String item(long generation, Item item, Locale locale) {
+        return "\"item-" + Long.toHexString(generation) + "-" + item.getId() + "-" + item.getVersion()
+                + "-" + locale.toLanguageTag() + "\"";
+    }
+}
@@ -0,0 +1,80 @@
+package hello.itemservice.web.validation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemCursor;
+import hello.itemservice.domain.item.ItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 상품 조회 API(GET /validation/api/items)의 응답을 ItemCursor로 chunk 단위로 읽으면서 JsonGenerator로 바로 기록한다.
+ * 다음 chunk를 읽기 전에 지금까지 기록한 응답을 내보내므로(flush) size가 커도 List<Item>이나 전체 응답을 메모리에 두지 않는다.
+ *
+ * {"items":[{"id":1,"itemName":"itemA","price":10000,"quantity":10,"version":1}],"size":20,"nextCursor":20}
+ * nextCursor는 다음 페이지 요청의 after로 사용한다. 마지막 페이지이면 null
+ */
+@Component
+public class ItemJsonExporter {
+
+    private final ItemRepository itemRepository;
+    private final int chunkSize;
+    private final int maximumSize;
+
+    public ItemJsonExporter(ItemRepository itemRepository,
+                            @Value("${item.api.export.chunk-size:" + ItemRepository.MAX_PAGE_SIZE + "}") int chunkSize,
+                            @Value("${item.api.export.maximum-size:10000}") int maximumSize) {
+        this.itemRepository = itemRepository;
+        this.chunkSize = chunkSize;
+        this.maximumSize = maximumSize;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @param after 이 id 다음부터 기록한다. null이면 처음부터
+     * @param size 기록할 최대 상품 수 (1 ~ maximumSize)
+     */
+    public void writePage(Long after, int size, JsonGenerator gen) throws IOException {
+        ItemCursor cursor = new ItemCursor(itemRepository, after, Math.min(chunkSize, size), () -> flush(gen));
+        try {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("items");
+            int count = 0;
+            while (count < size && cursor.hasNext()) {
+                gen.writeObject(cursor.next());
+                count++;
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("size", count);
+
+            //size개를 채웠고 뒤에 상품이 더 있을 때만 이어서 조회할 위치를 준다. 다음 chunk는 읽지 않는다.
+            if (count == size && cursor.hasMore()) {
+                gen.writeNumberField("nextCursor", cursor.getLastId());
+            } else {
+                gen.writeNullField("nextCursor");
+            }
+            gen.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public void writeItem(Item item, JsonGenerator gen) throws IOException {
+        gen.writeObject(item);
+    }
+
+    private static void flush(JsonGenerator gen) {
+        try {
+            gen.flush();
+        } catch (IOException e) {
+            //클라이언트가 연결을 끊은 경우. 남은 상품은 읽지 않는다.
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package hello.itemservice.web.validation;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemCursor;
+import hello.itemservice.domain.item.ItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * 상품 목록 화면(items.html)의 스트리밍 모드. ex) /validation/v5/items?stream
+ * 모델에 List 대신 ItemCursor를 넣으면 th:each가 chunk 단위로 상품을 읽으면서 행을 그린다.
+ * 다음 chunk를 읽기 전에 지금까지 그린 응답을 내보내므로(flush), 브라우저는 첫 chunk부터 화면을 그리고
+ * 서버는 전체 목록이나 전체 응답을 메모리에 두지 않는다.
+ * (Thymeleaf가 응답 Writer에 바로 기록하는 spring.thymeleaf.servlet.produce-partial-output-while-processing=true(기본)가 필요하다.)
+ */
+@Component
+public class ItemListStreamer {
+
+    private final ItemRepository itemRepository;
+    private final int chunkSize;
+
+    public ItemListStreamer(ItemRepository itemRepository,
+                            @Value("${item.list.stream.chunk-size:" + ItemRepository.MAX_PAGE_SIZE + "}") int chunkSize) {
+        this.itemRepository = itemRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    public Iterator<Item> stream(HttpServletResponse response) {
+        return new ItemCursor(itemRepository, null, chunkSize, () -> flush(response));
+    }
+
+    private static void flush(HttpServletResponse response) {
+        try {
+            response.flushBuffer();
+        } catch (IOException e) {
+            //클라이언트가 연결을 끊은 경우. 남은 상품은 읽지 않는다.
+            throw new UncheckedIOException(e);
+        }
+    }
+}
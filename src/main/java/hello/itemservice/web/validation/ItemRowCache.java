@@ -0,0 +1,181 @@
+package hello.itemservice.web.validation;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 상품 목록(validation/v5/items.html)의 행(tr)을 그린 HTML을 상품 id, version, 저장소 세대(generation)별로 보관한다.
+ * 목록은 th:each 안에서 ${@itemRowCache.render(item)}로 행을 가져오므로, 변경이 없는 상품은 링크(@{...}),
+ * th:text를 다시 계산하지 않고 보관된 HTML을 그대로 이어 붙인다.
+ *
+ * 수정(ItemRepository.update)하면 version이 올라가므로 이전 version의 HTML은 다시 사용되지 않고,
+ * 다음 렌더링에서 새 HTML로 교체된다. clearStore 후에는 같은 id, version이 다시 나올 수 있으므로 세대도 함께 비교한다.
+ *
+ * 링크는 요청마다 달라질 수 있는 response.encodeURL을 거치므로, URL에 세션 id를 붙이는(URL rewriting) 요청은
+ * 보관된 행을 사용하지도, 보관하지도 않는다. context path도 행과 함께 보관해서 비교한다.
+ *
+ * 조회는 ConcurrentHashMap에서 lock 없이 한다. 최대 maximumSize개를 보관하며, 넘치면 한 스레드가 임의의 행부터 내보낸다.
+ * (행은 다시 그리면 되므로 사용 순서를 기록하지 않는다.)
+ * 적중률은 item.view.row.cache.gets(result=hit/miss), 목록 렌더링 시간은 item.view.render(view=validation/v5/items)로 확인한다.
+ */
+@Component
+public class ItemRowCache {
+
+    private static final String TEMPLATE = "validation/v5/itemRow";
+    private static final Set<String> FRAGMENT = Set.of("row");
+
+    private final ITemplateEngine templateEngine;
+    private final ServletContext servletContext;
+    private final ItemRepository itemRepository;
+    private final int maximumSize;
+
+    private final ConcurrentHashMap<Long, Row> rows = new ConcurrentHashMap<>();
+    private final ReentrantLock trimLock = new ReentrantLock();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public ItemRowCache(ITemplateEngine templateEngine, ServletContext servletContext, ItemRepository itemRepository,
+                        @Value("${item.view.row-cache.maximum-size:10000}") int maximumSize,
+                        ObjectProvider<MeterRegistry> meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.servletContext = servletContext;
+        this.itemRepository = itemRepository;
+        this.maximumSize = maximumSize;
+        meterRegistry.ifAvailable(this::bindMetrics);
+    }
+
+    /**
+     * 같은 version, 세대의 HTML이 있으면 그대로, 없으면 itemRow 템플릿의 row 조각을 그려서 보관한 뒤 반환한다.
+     * 링크에 context path가 들어가므로 요청 처리 중(화면 렌더링 중)에만 호출한다.
+     */
+    public String render(Item item) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        HttpServletResponse response = attributes.getResponse();
+        if (rewritesUrl(request, response)) {
+            missCount.increment();
+            return renderRow(item, request, response);
+        }
+
+        long generation = itemRepository.generation();
+        String contextPath = request.getContextPath();
+        Row row = rows.get(item.getId());
+        if (row != null && row.matches(item.getVersion(), generation, contextPath)) {
+            hitCount.increment();
+            return row.html;
+        }
+
+        missCount.increment();
+        String html = renderRow(item, request, response);
+        Row rendered = new Row(item.getVersion(), generation, contextPath, html);
+        //그 사이 같은 세대의 더 높은 version이 들어왔다면 덮어쓰지 않는다.
+        rows.merge(item.getId(), rendered, (cached, candidate) ->
+                cached.generation == candidate.generation && cached.version > candidate.version ? cached : candidate);
+        if (rows.size() > maximumSize) {
+            trim();
+        }
+        return html;
+    }
+
+    public void evict(Long itemId) {
+        rows.remove(itemId);
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * 세션 id를 URL로 받았거나 encodeURL이 URL을 바꾸면 요청마다 링크가 달라지므로 보관된 행을 사용할 수 없다.
+     */
+    private static boolean rewritesUrl(HttpServletRequest request, HttpServletResponse response) {
+        if (request.isRequestedSessionIdFromURL()) {
+            return true;
+        }
+        String url = request.getContextPath() + "/";
+        return !url.equals(response.encodeURL(url));
+    }
+
+    //넘친 만큼 내보낸다. 이미 다른 스레드가 내보내는 중이면 맡긴다.
+    private void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            Iterator<Long> iterator = rows.keySet().iterator();
+            while (rows.size() > maximumSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    private String renderRow(Item item, HttpServletRequest request, HttpServletResponse response) {
+        WebContext context = new WebContext(request, response, servletContext,
+                LocaleContextHolder.getLocale(), Map.of("item", item));
+        return templateEngine.process(TEMPLATE, FRAGMENT, context);
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("item.view.row.cache.gets", this, ItemRowCache::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("item.view.row.cache.gets", this, ItemRowCache::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("item.view.row.cache.size", this, ItemRowCache::size)
+                .register(registry);
+    }
+
+    private static final class Row {
+        final Long version;
+        final long generation;
+        final String contextPath;
+        final String html;
+
+        Row(Long version, long generation, String contextPath, String html) {
+            this.version = version;
+            this.generation = generation;
+            this.contextPath = contextPath;
+            this.html = html;
+        }
+
+        boolean matches(Long version, long generation, String contextPath) {
+            return Objects.equals(this.version, version) && this.generation == generation
+                    && this.contextPath.equals(contextPath);
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package hello.itemservice.web.validation;
 
 import hello.itemservice.domain.item.Item;
+import hello.itemservice.validation.ItemRules;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class ItemValidator implements Validator {
+
+    //검증 기준값은 설정(item.rules.*)에서 읽어 미리 만들어 둔 룰 테이블을 사용한다.
+    private final ItemRules itemRules;
+
     @Override
     public boolean supports(Class<?> clazz) {
        /*
@@ -26,22 +32,7 @@ public class ItemValidator implements Validator {
     @Override
     public void validate(Object target, Errors errors) {
         Item item = (Item) target; //object -> item cast
-
-        if(!StringUtils.hasText(item.getItemName())) {
-            errors.rejectValue("itemName", "required");
-        }
-        if(item.getPrice() == null || item.getPrice() < 1000 || item.getPrice() > 1000000) {
-            errors.rejectValue("price", "range", new Object[]{"1,000", "1,000,000"}, null);
-        }
-        if (item.getQuantity() == null || item.getQuantity() > 9999) {
-            errors.rejectValue("quantity", "max", new Object[]{"9,999"}, null);
-        }
-        if(item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
-            if(resultPrice < 10000) {
-                errors.reject("totalPriceMin", new Object[]{"10,000", resultPrice}, null);
-            }
-        }
+        itemRules.validate(item.getItemName(), item.getPrice(), item.getQuantity(), errors);
     }
 
 }
@@ -1,31 +1,215 @@
 package hello.itemservice.web.validation;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.domain.item.ItemSearchCond;
 import hello.itemservice.web.validation.form.ItemSaveForm;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
-import org.springframework.validation.annotation.Validated;
+import org.springframework.validation.Validator;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
 @Slf4j
 @RestController
 @RequestMapping("/validation/api/items")
 public class ValidationApiController {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private final ItemRepository itemRepository;
+    private final ItemBulkImporter itemBulkImporter;
+    private final ItemBatchValidator itemBatchValidator;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyCache idempotencyCache;
+    private final ApiErrorWriter apiErrorWriter;
+    private final Validator validator;
+    private final ItemJsonExporter itemJsonExporter;
+
+    //@Validated와 같은 검증기(mvcValidator)를 사용해서 검증 시간(item.validation)도 함께 기록한다.
+    public ValidationApiController(ItemRepository itemRepository, ItemBulkImporter itemBulkImporter,
+                                   ItemBatchValidator itemBatchValidator, ObjectMapper objectMapper,
+                                   IdempotencyCache idempotencyCache, ApiErrorWriter apiErrorWriter,
+                                   @Qualifier("mvcValidator") Validator validator, ItemJsonExporter itemJsonExporter) {
+        this.itemRepository = itemRepository;
+        this.itemBulkImporter = itemBulkImporter;
+        this.itemBatchValidator = itemBatchValidator;
+        this.objectMapper = objectMapper;
+        this.idempotencyCache = idempotencyCache;
+        this.apiErrorWriter = apiErrorWriter;
+        this.validator = validator;
+        this.itemJsonExporter = itemJsonExporter;
+    }
+
+    /**
+     * 상품 목록을 id 순으로 size개씩 응답한다. 응답의 nextCursor를 다음 요청의 after로 사용한다.
+     * ex) /validation/api/items?size=1000, /validation/api/items?after=1000&size=1000
+     * 자세한 형식은 ItemJsonExporter 참고
+     */
+    @GetMapping
+    public void items(@RequestParam(required = false) Long after,
+                      @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size,
+                      HttpServletResponse response) throws IOException {
+        if (size < 1 || size > itemJsonExporter.getMaximumSize()) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    "size는 1 ~ " + itemJsonExporter.getMaximumSize() + " 이어야 합니다.");
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            itemJsonExporter.writePage(after, size, gen);
+        }
+    }
+
+    @GetMapping("/{itemId}")
+    public void item(@PathVariable Long itemId, HttpServletResponse response) throws IOException {
+        Item item = itemRepository.findById(itemId);
+        if (item == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            itemJsonExporter.writeItem(item, gen);
+        }
+    }
+
+    /**
+     * Idempotency-Key 헤더가 있으면 첫 처리 결과(검증 오류 또는 성공 결과)를 보관해 두고,
+     * 같은 키와 같은 내용으로 다시 요청하면 검증하지 않고 보관한 결과로 응답한다.
+     * 같은 키로 다른 내용을 보내면 422 Unprocessable Entity, 같은 키의 첫 요청이 아직 처리 중이면 409 Conflict.
+     * 캐시를 먼저 확인해야 하므로 @Validated 대신 직접 검증한다.
+     * 보관하는 결과는 BindingResult가 아니라 상태 코드와 응답 본문(ApiError 목록 또는 저장한 상품)이다.
+     */
     @PostMapping("/add")
-    public Object addItem(@RequestBody @Validated ItemSaveForm form, BindingResult bindingResult) {
+    public ResponseEntity<Object> addItem(@RequestBody ItemSaveForm form, BindingResult bindingResult,
+                                          @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                          Locale locale) {
 
         log.info("API 컨트롤러 호출");
 
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                return ResponseEntity.badRequest().build();
+            }
+            //처리 중 결과를 먼저 넣으므로 같은 키로 동시에 들어온 요청은 하나만 처리한다.
+            IdempotencyCache.Entry entry = idempotencyCache.putIfAbsent(idempotencyKey, form);
+            if (entry != null) {
+                return cachedResponse(entry, form, idempotencyKey);
+            }
+        }
+
+        ResponseEntity<Object> response;
+        try {
+            validator.validate(form, bindingResult);
+            response = addItem(form, bindingResult, locale);
+        } catch (RuntimeException e) {
+            if (idempotencyKey != null) {
+                idempotencyCache.remove(idempotencyKey);
+            }
+            throw e;
+        }
+
+        if (idempotencyKey != null) {
+            idempotencyCache.complete(idempotencyKey, response);
+        }
+        return response;
+    }
+
+    private ResponseEntity<Object> addItem(ItemSaveForm form, BindingResult bindingResult, Locale locale) {
         if(bindingResult.hasErrors()) {
             log.info("검증 오류 발생 errors={}", bindingResult);
-            return bindingResult.getAllErrors();
+            return ResponseEntity.ok(apiErrorWriter.toApiErrors(bindingResult, locale));
         }
 
         log.info("성공 로직 실행");
-        return form;
+        return ResponseEntity.ok(form);
+    }
+
+    private ResponseEntity<Object> cachedResponse(IdempotencyCache.Entry entry, ItemSaveForm form, String idempotencyKey) {
+        if (!entry.matches(form)) {
+            log.info("Idempotency-Key 재사용 key={}", idempotencyKey);
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+        }
+        if (entry.isPending()) {
+            log.info("Idempotency-Key 처리 중 key={}", idempotencyKey);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        log.info("Idempotency-Key 캐시 응답 key={}", idempotencyKey);
+        @SuppressWarnings("unchecked")
+        ResponseEntity<Object> response = (ResponseEntity<Object>) entry.getResponse();
+        return response;
+    }
+
+    /**
+     * 상품 일괄 등록. 요청 본문을 스트리밍으로 읽으며 검증/저장하고, 실패한 상품을 바로 응답으로 내보낸다.
+     * 자세한 형식은 ItemBulkImporter 참고
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void bulkAddItems(HttpServletRequest request, HttpServletResponse response, Locale locale) throws IOException {
+        log.info("API 일괄 등록 호출");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        itemBulkImporter.importItems(request.getInputStream(), response.getOutputStream(), locale);
+    }
+
+    /**
+     * 상품 목록을 저장하지 않고 병렬로 미리 검증한다. save=true 이면 모두 성공한 경우에만 저장한다.
+     * 상품이 maximumSize개를 넘으면 목록 전체를 읽기 전에 413 Payload Too Large로 응답한다.
+     * 자세한 형식은 ItemBatchValidator 참고
+     */
+    @PostMapping(value = "/validate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void validateItems(@RequestParam(defaultValue = "false") boolean save,
+                              HttpServletRequest request, HttpServletResponse response, Locale locale) throws IOException {
+        List<ItemSaveForm> forms;
+        try (JsonParser parser = objectMapper.getFactory().createParser(request.getInputStream())) {
+            forms = itemBatchValidator.read(parser);
+        } catch (JsonProcessingException e) {
+            log.info("API 일괄 검증 요청 오류 message={}", e.getOriginalMessage());
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getOriginalMessage());
+            return;
+        }
+        if (forms == null) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "maximumSize=" + itemBatchValidator.getMaximumSize());
+            return;
+        }
+        log.info("API 일괄 검증 호출 size={}", forms.size());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            itemBatchValidator.validate(forms, save, gen, locale);
+        }
+    }
+
+    //ex) /validation/api/items/search?itemNamePrefix=item&minPrice=1000&maxPrice=20000
+    @GetMapping("/search")
+    public List<Item> search(@ModelAttribute ItemSearchCond cond,
+                             @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size) {
+        return itemRepository.search(cond, size);
     }
 }
@@ -1,6 +1,7 @@
 package hello.itemservice.web.validation;
 
 import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
 import hello.itemservice.domain.item.ItemRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,9 +14,11 @@ import org.springframework.validation.ObjectError;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Locale;
 
 @Slf4j
 @Controller
@@ -25,6 +28,7 @@ public class ValidationItemControllerV2 {
 
     //생성자가 1개이면 @Autowired가 생략가능하며, Lombok의 RequiredArgsConstrctor가 생성자를 자동으로 생성해준다.
     private final ItemRepository itemRepository;
+    private final ItemListStreamer itemListStreamer;
     private final ItemValidator itemValidator;
 
 
@@ -39,16 +43,38 @@ public class ValidationItemControllerV2 {
         dataBinder.addValidators(itemValidator);
     }
 
+    //전체 목록이 아닌 id(cursor) 기준으로 한 페이지만 조회한다.
     @GetMapping
-    public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
-        model.addAttribute("items", items);
+    public String items(@RequestParam(required = false) Long after,
+                        @RequestParam(required = false) Long before,
+                        @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size,
+                        Model model, WebRequest webRequest, Locale locale) {
+        //마지막 응답 이후 변경이 없었다면 저장소를 읽거나 화면을 그리지 않고 304 Not Modified
+        if (webRequest.checkNotModified(
+                ItemETags.items(itemRepository.generation(), itemRepository.modificationCount(), locale))) {
+            return null;
+        }
+
+        ItemPage page = itemRepository.findPage(after, before, size);
+        model.addAttribute("items", page.getItems());
+        model.addAttribute("page", page);
+        return "validation/v2/items";
+    }
+
+    //전체 상품을 chunk 단위로 읽으면서 바로 응답으로 내보낸다. ex) /validation/v2/items?stream
+    @GetMapping(params = "stream")
+    public String streamItems(Model model, HttpServletResponse response) {
+        model.addAttribute("items", itemListStreamer.stream(response));
         return "validation/v2/items";
     }
 
     @GetMapping("/{itemId}")
-    public String item(@PathVariable long itemId, Model model) {
+    public String item(@PathVariable long itemId, Model model, WebRequest webRequest, Locale locale) {
         Item item = itemRepository.findById(itemId);
+        //상품의 version이 같다면 화면을 그리지 않고 304 Not Modified
+        if (item != null && webRequest.checkNotModified(ItemETags.item(itemRepository.generation(), item, locale))) {
+            return null;
+        }
         model.addAttribute("item", item);
         return "validation/v2/item";
     }
@@ -338,8 +364,21 @@ public class ValidationItemControllerV2 {
     }
 
     @PostMapping("/{itemId}/edit")
-    public String edit(@PathVariable Long itemId, @ModelAttribute Item item) {
-        itemRepository.update(itemId, item);
+    public String edit(@PathVariable Long itemId, @ModelAttribute Item item, BindingResult bindingResult) {
+        //price=abc 같은 바인딩 오류가 있으면 수정하지 않고 다시 수정 폼으로
+        if(bindingResult.hasErrors()) {
+            log.debug("errors = {}", bindingResult);
+            return "validation/v2/editForm";
+        }
+
+        //다른 요청이 먼저 수정하여 version이 맞지 않으면 다시 수정 폼으로
+        if(!itemRepository.update(itemId, item)) {
+            bindingResult.reject("versionConflict");
+            log.debug("errors = {}", bindingResult);
+            //다시 저장하면 최신 version 기준으로 수정된다.
+            item.setVersion(itemRepository.findById(itemId).getVersion());
+            return "validation/v2/editForm";
+        }
         return "redirect:/validation/v2/items/{itemId}";
     }
 
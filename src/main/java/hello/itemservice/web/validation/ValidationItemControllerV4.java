@@ -1,7 +1,9 @@
 package hello.itemservice.web.validation;
 
 import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
 import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.validation.ItemRules;
 import hello.itemservice.domain.item.SaveCheck;
 import hello.itemservice.domain.item.UpdateCheck;
 import lombok.RequiredArgsConstructor;
@@ -11,9 +13,11 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Locale;
 
 @Slf4j
 @Controller
@@ -23,17 +27,41 @@ public class ValidationItemControllerV4 {
 
     //생성자가 1개이면 @Autowired가 생략가능하며, Lombok의 RequiredArgsConstrctor가 생성자를 자동으로 생성해준다.
     private final ItemRepository itemRepository;
+    private final ItemListStreamer itemListStreamer;
+    private final ItemRules itemRules;
 
+    //전체 목록이 아닌 id(cursor) 기준으로 한 페이지만 조회한다.
     @GetMapping
-    public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
-        model.addAttribute("items", items);
+    public String items(@RequestParam(required = false) Long after,
+                        @RequestParam(required = false) Long before,
+                        @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size,
+                        Model model, WebRequest webRequest, Locale locale) {
+        //마지막 응답 이후 변경이 없었다면 저장소를 읽거나 화면을 그리지 않고 304 Not Modified
+        if (webRequest.checkNotModified(
+                ItemETags.items(itemRepository.generation(), itemRepository.modificationCount(), locale))) {
+            return null;
+        }
+
+        ItemPage page = itemRepository.findPage(after, before, size);
+        model.addAttribute("items", page.getItems());
+        model.addAttribute("page", page);
+        return "validation/v4/items";
+    }
+
+    //전체 상품을 chunk 단위로 읽으면서 바로 응답으로 내보낸다. ex) /validation/v4/items?stream
+    @GetMapping(params = "stream")
+    public String streamItems(Model model, HttpServletResponse response) {
+        model.addAttribute("items", itemListStreamer.stream(response));
         return "validation/v4/items";
     }
 
     @GetMapping("/{itemId}")
-    public String item(@PathVariable long itemId, Model model) {
+    public String item(@PathVariable long itemId, Model model, WebRequest webRequest, Locale locale) {
         Item item = itemRepository.findById(itemId);
+        //상품의 version이 같다면 화면을 그리지 않고 304 Not Modified
+        if (item != null && webRequest.checkNotModified(ItemETags.item(itemRepository.generation(), item, locale))) {
+            return null;
+        }
         model.addAttribute("item", item);
         return "validation/v4/item";
     }
@@ -81,11 +109,9 @@ public class ValidationItemControllerV4 {
                           RedirectAttributes redirectAttributes) {
         
         //특정 필드가 아닌 복합 룰 검증... BeanValidation도 ObjectError를 검증할 수 있으나 기능이 많이 약하고 제약사항이 많다. 자세한 내용은 Item.class 파일 참조
-        if(item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
-            if(resultPrice < 10000) {
-                bindingResult.reject("totalPriceMin", new Object[]{"10,000", resultPrice}, null);
-            }
+        //필드 검증(바인딩 포함)에서 이미 실패했다면 복합 룰은 검사하지 않는다.
+        if (!bindingResult.hasErrors()) {
+            itemRules.validateTotalPrice(item.getPrice(), item.getQuantity(), bindingResult);
         }
 
         //검증에 실패하면 다시 입력 폼으로
@@ -111,11 +137,9 @@ public class ValidationItemControllerV4 {
         */
 
         //특정 필드가 아닌 복합 룰 검증... BeanValidation도 ObjectError를 검증할 수 있으나 기능이 많이 약하고 제약사항이 많다. 자세한 내용은 Item.class 파일 참조
-        if(item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
-            if(resultPrice < 10000) {
-                bindingResult.reject("totalPriceMin", new Object[]{"10,000", resultPrice}, null);
-            }
+        //필드 검증(바인딩 포함)에서 이미 실패했다면 복합 룰은 검사하지 않는다.
+        if (!bindingResult.hasErrors()) {
+            itemRules.validateTotalPrice(item.getPrice(), item.getQuantity(), bindingResult);
         }
 
         //검증에 실패하면 다시 입력 폼으로
@@ -142,11 +166,9 @@ public class ValidationItemControllerV4 {
     public String edit(@PathVariable Long itemId, @Validated @ModelAttribute Item item, BindingResult bindingResult) {
 
         //특정 필드가 아닌 복합 룰 검증... BeanValidation도 ObjectError를 검증할 수 있으나 기능이 많이 약하고 제약사항이 많다. 자세한 내용은 Item.class 파일 참조
-        if(item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
-            if(resultPrice < 10000) {
-                bindingResult.reject("totalPriceMin", new Object[]{"10,000", resultPrice}, null);
-            }
+        //필드 검증(바인딩 포함)에서 이미 실패했다면 복합 룰은 검사하지 않는다.
+        if (!bindingResult.hasErrors()) {
+            itemRules.validateTotalPrice(item.getPrice(), item.getQuantity(), bindingResult);
         }
 
         //검증에 실패하면 다시 입력 폼으로
@@ -155,7 +177,14 @@ public class ValidationItemControllerV4 {
             return "validation/v4/editForm";
         }
 
-        itemRepository.update(itemId, item);
+        //다른 요청이 먼저 수정하여 version이 맞지 않으면 다시 수정 폼으로
+        if(!itemRepository.update(itemId, item)) {
+            bindingResult.reject("versionConflict");
+            log.debug("errors = {}", bindingResult);
+            item.setVersion(itemRepository.findById(itemId).getVersion());
+            return "validation/v4/editForm";
+        }
+
         return "redirect:/validation/v4/items/{itemId}";
     }
 
@@ -168,11 +197,9 @@ public class ValidationItemControllerV4 {
         */
 
         //특정 필드가 아닌 복합 룰 검증... BeanValidation도 ObjectError를 검증할 수 있으나 기능이 많이 약하고 제약사항이 많다. 자세한 내용은 Item.class 파일 참조
-        if(item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
-            if(resultPrice < 10000) {
-                bindingResult.reject("totalPriceMin", new Object[]{"10,000", resultPrice}, null);
-            }
+        //필드 검증(바인딩 포함)에서 이미 실패했다면 복합 룰은 검사하지 않는다.
+        if (!bindingResult.hasErrors()) {
+            itemRules.validateTotalPrice(item.getPrice(), item.getQuantity(), bindingResult);
         }
 
         //검증에 실패하면 다시 입력 폼으로
@@ -181,7 +208,14 @@ public class ValidationItemControllerV4 {
             return "validation/v4/editForm";
         }
 
-        itemRepository.update(itemId, item);
+        //다른 요청이 먼저 수정하여 version이 맞지 않으면 다시 수정 폼으로
+        if(!itemRepository.update(itemId, item)) {
+            bindingResult.reject("versionConflict");
+            log.debug("errors = {}", bindingResult);
+            item.setVersion(itemRepository.findById(itemId).getVersion());
+            return "validation/v4/editForm";
+        }
+
         return "redirect:/validation/v4/items/{itemId}";
     }
 
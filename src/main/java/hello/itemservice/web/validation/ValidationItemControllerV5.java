@@ -1,7 +1,10 @@
 package hello.itemservice.web.validation;
 
+import hello.itemservice.domain.item.DuplicateItemNameException;
 import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
 import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.domain.item.ItemSearchCond;
 import hello.itemservice.domain.item.SaveCheck;
 import hello.itemservice.domain.item.UpdateCheck;
 import hello.itemservice.web.validation.form.ItemSaveForm;
@@ -13,9 +16,11 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Locale;
 
 @Slf4j
 @Controller
@@ -25,17 +30,49 @@ public class ValidationItemControllerV5 {
 
     //생성자가 1개이면 @Autowired가 생략가능하며, Lombok의 RequiredArgsConstrctor가 생성자를 자동으로 생성해준다.
     private final ItemRepository itemRepository;
+    private final ItemListStreamer itemListStreamer;
+    private final ItemRowCache itemRowCache;
 
+    //전체 목록이 아닌 id(cursor) 기준으로 한 페이지만 조회한다.
+    //검색 조건이 있으면 가격/상품명 인덱스로 검색한다.
     @GetMapping
-    public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
-        model.addAttribute("items", items);
+    public String items(@ModelAttribute("itemSearch") ItemSearchCond itemSearch,
+                        @RequestParam(required = false) Long after,
+                        @RequestParam(required = false) Long before,
+                        @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size,
+                        Model model, WebRequest webRequest, Locale locale) {
+        //마지막 응답 이후 변경이 없었다면 저장소를 읽거나 화면을 그리지 않고 304 Not Modified
+        if (webRequest.checkNotModified(
+                ItemETags.items(itemRepository.generation(), itemRepository.modificationCount(), locale))) {
+            return null;
+        }
+
+        if (!itemSearch.isEmpty()) {
+            model.addAttribute("items", itemRepository.search(itemSearch, size));
+            return "validation/v5/items";
+        }
+
+        ItemPage page = itemRepository.findPage(after, before, size);
+        model.addAttribute("items", page.getItems());
+        model.addAttribute("page", page);
+        return "validation/v5/items";
+    }
+
+    //전체 상품을 chunk 단위로 읽으면서 바로 응답으로 내보낸다. ex) /validation/v5/items?stream
+    @GetMapping(params = "stream")
+    public String streamItems(@ModelAttribute("itemSearch") ItemSearchCond itemSearch, Model model,
+                              HttpServletResponse response) {
+        model.addAttribute("items", itemListStreamer.stream(response));
         return "validation/v5/items";
     }
 
     @GetMapping("/{itemId}")
-    public String item(@PathVariable long itemId, Model model) {
+    public String item(@PathVariable long itemId, Model model, WebRequest webRequest, Locale locale) {
         Item item = itemRepository.findById(itemId);
+        //상품의 version이 같다면 화면을 그리지 않고 304 Not Modified
+        if (item != null && webRequest.checkNotModified(ItemETags.item(itemRepository.generation(), item, locale))) {
+            return null;
+        }
         model.addAttribute("item", item);
         return "validation/v5/item";
     }
@@ -50,13 +87,7 @@ public class ValidationItemControllerV5 {
     public String addItem(@Validated @ModelAttribute("item") ItemSaveForm form, BindingResult bindingResult,
                           RedirectAttributes redirectAttributes) {
         
-        //특정 필드가 아닌 복합 룰 검증... BeanValidation도 ObjectError를 검증할 수 있으나 기능이 많이 약하고 제약사항이 많다. 자세한 내용은 Item.class 파일 참조
-        if(form.getPrice() != null && form.getQuantity() != null) {
-            int resultPrice = form.getPrice() * form.getQuantity();
-            if(resultPrice < 10000) {
-                bindingResult.reject("totalPriceMin", new Object[]{"10,000", resultPrice}, null);
-            }
-        }
+        //특정 필드가 아닌 복합 룰 검증(가격 * 수량)은 폼의 @ArithmeticMin이 Bean Validation과 함께 처리한다.
 
         //검증에 실패하면 다시 입력 폼으로
         if(bindingResult.hasErrors()) {
@@ -66,7 +97,15 @@ public class ValidationItemControllerV5 {
 
         //성공 로직
         Item item = new Item(form.getItemName(), form.getPrice(), form.getQuantity());
-        Item savedItem = itemRepository.save(item);
+        Item savedItem;
+        try {
+            //검증 이후 다른 요청이 같은 상품명을 먼저 저장했다면 다시 입력 폼으로
+            savedItem = itemRepository.saveUniqueName(item);
+        } catch (DuplicateItemNameException e) {
+            bindingResult.rejectValue("itemName", "UniqueItemName");
+            log.debug("errors = {}", bindingResult);
+            return "validation/v5/addForm";
+        }
         redirectAttributes.addAttribute("itemId", savedItem.getId());
         redirectAttributes.addAttribute("status", true);
         //addAttribute에 등록한 itemId가 redirect url에 포함될 경우 PathVariable로 redirect 처리 controller에서 사용 가능
@@ -86,13 +125,7 @@ public class ValidationItemControllerV5 {
     @PostMapping("/{itemId}/edit")
     public String edit(@PathVariable Long itemId, @Validated @ModelAttribute("item") ItemUpdateForm form, BindingResult bindingResult) {
 
-        //특정 필드가 아닌 복합 룰 검증... BeanValidation도 ObjectError를 검증할 수 있으나 기능이 많이 약하고 제약사항이 많다. 자세한 내용은 Item.class 파일 참조
-        if(form.getPrice() != null && form.getQuantity() != null) {
-            int resultPrice = form.getPrice() * form.getQuantity();
-            if(resultPrice < 10000) {
-                bindingResult.reject("totalPriceMin", new Object[]{"10,000", resultPrice}, null);
-            }
-        }
+        //특정 필드가 아닌 복합 룰 검증(가격 * 수량)은 폼의 @ArithmeticMin이 Bean Validation과 함께 처리한다.
 
         //검증에 실패하면 다시 입력 폼으로
         if(bindingResult.hasErrors()) {
@@ -101,7 +134,26 @@ public class ValidationItemControllerV5 {
         }
 
         Item itemParam = new Item(form.getItemName(), form.getPrice(), form.getQuantity());
-        itemRepository.update(itemId, itemParam);
+        itemParam.setVersion(form.getVersion());
+
+        //다른 요청이 먼저 수정하여 version이 맞지 않으면 다시 수정 폼으로
+        boolean updated;
+        try {
+            updated = itemRepository.updateUniqueName(itemId, itemParam);
+        } catch (DuplicateItemNameException e) {
+            bindingResult.rejectValue("itemName", "UniqueItemName");
+            log.debug("errors = {}", bindingResult);
+            return "validation/v5/editForm";
+        }
+        if(!updated) {
+            bindingResult.reject("versionConflict");
+            log.debug("errors = {}", bindingResult);
+            form.setVersion(itemRepository.findById(itemId).getVersion());
+            return "validation/v5/editForm";
+        }
+
+        //version이 올라가므로 이전 행은 다시 사용되지 않지만, 수정된 상품의 행은 바로 내보낸다.
+        itemRowCache.evict(itemId);
         return "redirect:/validation/v5/items/{itemId}";
     }
 
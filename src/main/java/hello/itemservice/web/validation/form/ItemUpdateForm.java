@@ -1,12 +1,20 @@
 package hello.itemservice.web.validation.form;
 
+import hello.itemservice.domain.item.UpdateCheck;
+import hello.itemservice.validation.UniqueItemName;
 import lombok.Data;
-import org.hibernate.validator.constraints.Range;
 
+import javax.validation.GroupSequence;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+//가격 범위와 복합 룰(가격 * 수량의 합, @ArithmeticMin)은 설정(item.rules.*)을 따르므로
+//ItemRules.addConstraintMappings에서 등록한다.
+//같은 상품명의 다른 상품이 없어야 한다. 저장소 조회가 필요하므로 마지막 단계에서 검사한다.
+@UniqueItemName(id = "id", groups = UpdateCheck.Total.class)
+//기본 group(@Validated)의 검증 순서: 필수 값 -> 범위 -> 복합 룰. 앞 단계에서 실패하면 뒤 단계는 검사하지 않는다.
+@GroupSequence({ItemUpdateForm.class, UpdateCheck.Bounds.class, UpdateCheck.Total.class})
 @Data
 public class ItemUpdateForm {
 
@@ -17,9 +25,11 @@ public class ItemUpdateForm {
     private String itemName;
 
     @NotNull
-    @Range(min = 1000, max=1000000)
     private Integer price;
     
     //수정에서는 수량은 자유롭게 변경 가능.
     private Integer quantity;
+
+    //수정 폼을 열었을 때의 version. 그 사이 다른 수정이 있었는지 확인한다.
+    private Long version;
 }
@@ -0,0 +1,158 @@
+package hello.itemservice.domain.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CachingItemRepositoryTest {
+
+    CachingItemRepository itemRepository = new CachingItemRepository(new MemoryItemRepository(), 2);
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void findById() {
+        //given
+        Item savedItem = itemRepository.save(new Item("itemA", 10000, 10));
+
+        //when
+        Item findItem1 = itemRepository.findById(savedItem.getId());
+        Item findItem2 = itemRepository.findById(savedItem.getId());
+
+        //then 저장할 때 캐시에 들어가므로 모두 hit
+        assertThat(findItem1).isEqualTo(savedItem);
+        assertThat(findItem2).isSameAs(findItem1);
+        assertThat(itemRepository.hitCount()).isEqualTo(2);
+        assertThat(itemRepository.missCount()).isZero();
+    }
+
+    @Test
+    void evictNotRecentlyUsed() {
+        //given
+        Item item1 = itemRepository.save(new Item("item1", 10000, 10));
+        Item item2 = itemRepository.save(new Item("item2", 20000, 20));
+        itemRepository.findById(item1.getId()); //item1은 참조 표시가 남아 한번 더 기회를 얻는다.
+
+        //when
+        Item item3 = itemRepository.save(new Item("item3", 30000, 30));
+
+        //then 저장 이후 조회되지 않은 item2를 내보낸다.
+        assertThat(itemRepository.size()).isEqualTo(2);
+        assertThat(itemRepository.evictionCount()).isEqualTo(1);
+
+        long missCount = itemRepository.missCount();
+        assertThat(itemRepository.findById(item1.getId()).getItemName()).isEqualTo("item1");
+        assertThat(itemRepository.findById(item3.getId()).getItemName()).isEqualTo("item3");
+        assertThat(itemRepository.missCount()).isEqualTo(missCount);
+        assertThat(itemRepository.findById(item2.getId()).getItemName()).isEqualTo("item2");
+        assertThat(itemRepository.missCount()).isEqualTo(missCount + 1);
+        assertThat(itemRepository.size()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentReads() throws Exception {
+        //given
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        int threads = Runtime.getRuntime().availableProcessors();
+        int readPerThread = 10_000;
+
+        //when 여러 스레드가 lock 없이 동시에 조회해도
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < readPerThread; i++) {
+                        assertThat(itemRepository.findById(item.getId()).getItemName()).isEqualTo("itemA");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //then 모두 hit로 처리된다.
+        assertThat(itemRepository.hitCount()).isEqualTo((long) threads * readPerThread);
+        assertThat(itemRepository.missCount()).isZero();
+    }
+
+    @Test
+    void updateItem() {
+        //given
+        Item savedItem = itemRepository.save(new Item("item1", 10000, 10));
+        Long itemId = savedItem.getId();
+        itemRepository.findById(itemId);
+
+        //when
+        Item updateParam = new Item("item2", 20000, 30);
+        updateParam.setVersion(savedItem.getVersion());
+        boolean updated = itemRepository.update(itemId, updateParam);
+
+        //then 캐시에도 수정된 값이 반영되어야 한다.
+        assertThat(updated).isTrue();
+        Item findItem = itemRepository.findById(itemId);
+        assertThat(findItem.getItemName()).isEqualTo(updateParam.getItemName());
+        assertThat(findItem.getVersion()).isEqualTo(savedItem.getVersion() + 1);
+    }
+
+    @Test
+    void savedItemChangeIsNotCached() {
+        //given
+        Item savedItem = itemRepository.save(new Item("itemA", 10000, 10));
+
+        //when 저장한 뒤 호출한 쪽에서 값을 바꾸더라도
+        savedItem.setPrice(1);
+
+        //then
+        assertThat(itemRepository.findById(savedItem.getId()).getPrice()).isEqualTo(10000);
+    }
+
+    @Test
+    void staleReadAfterEvictionIsNotCached() {
+        //given 캐시에 없는 item1을 저장소에서 읽는 동안, 다른 스레드가 item1을 수정하고 그 값이 캐시에서 다시 빠지면
+        Item item1 = itemRepository.save(new Item("item1", 10000, 10));
+        itemRepository.save(new Item("item2", 20000, 20));
+        itemRepository.save(new Item("item3", 30000, 30));
+        Runnable[] duringRead = new Runnable[1];
+        CachingItemRepository cachingItemRepository = new CachingItemRepository(new MemoryItemRepository() {
+            @Override
+            public Item findById(Long id) {
+                Item item = super.findById(id);
+                Runnable task = duringRead[0];
+                duringRead[0] = null;
+                if (task != null) {
+                    task.run();
+                }
+                return item;
+            }
+        }, 2);
+        duringRead[0] = () -> {
+            Item updateParam = new Item("item1-updated", 10000, 20);
+            updateParam.setVersion(item1.getVersion());
+            cachingItemRepository.update(item1.getId(), updateParam);
+            cachingItemRepository.findById(item1.getId() + 1);
+            cachingItemRepository.findById(item1.getId() + 2);
+        };
+
+        //when
+        Item staleItem = cachingItemRepository.findById(item1.getId());
+
+        //then 읽은 값(수정 전)은 캐시에 남지 않는다.
+        assertThat(staleItem.getItemName()).isEqualTo("item1");
+        assertThat(cachingItemRepository.evictionCount()).isEqualTo(1);
+        assertThat(cachingItemRepository.findById(item1.getId()).getItemName()).isEqualTo("item1-updated");
+    }
+}
@@ -0,0 +1,171 @@
+package hello.itemservice.domain.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ColumnarItemRepositoryTest {
+
+    ColumnarItemRepository itemRepository = new ColumnarItemRepository();
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void save() {
+        //given
+        Item item = new Item("itemA", 10000, 10);
+
+        //when
+        Item savedItem = itemRepository.save(item);
+
+        //then
+        Item findItem = itemRepository.findById(item.getId());
+        assertThat(findItem).isEqualTo(savedItem);
+    }
+
+    @Test
+    void saveNullValues() {
+        //given
+        Item item = new Item(null, null, null);
+
+        //when
+        Item savedItem = itemRepository.save(item);
+
+        //then
+        Item findItem = itemRepository.findById(savedItem.getId());
+        assertThat(findItem.getItemName()).isNull();
+        assertThat(findItem.getPrice()).isNull();
+        assertThat(findItem.getQuantity()).isNull();
+    }
+
+    //null은 값과 따로 보관하므로 int의 최소값도 그대로 보관된다.
+    @Test
+    void saveMinValue() {
+        Item savedItem = itemRepository.save(new Item("itemA", Integer.MIN_VALUE, Integer.MIN_VALUE));
+
+        Item findItem = itemRepository.findById(savedItem.getId());
+        assertThat(findItem.getPrice()).isEqualTo(Integer.MIN_VALUE);
+        assertThat(findItem.getQuantity()).isEqualTo(Integer.MIN_VALUE);
+
+        itemRepository.update(savedItem.getId(), new Item("itemA", null, 10));
+        findItem = itemRepository.findById(savedItem.getId());
+        assertThat(findItem.getPrice()).isNull();
+        assertThat(findItem.getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void findAll() {
+        //given
+        Item item1 = new Item("item1", 10000, 10);
+        Item item2 = new Item("item2", 20000, 20);
+
+        itemRepository.save(item1);
+        itemRepository.save(item2);
+
+        //when
+        List<Item> result = itemRepository.findAll();
+
+        //then
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result).contains(item1, item2);
+    }
+
+    @Test
+    void findPage() {
+        //given
+        for (int i = 1; i <= 5; i++) {
+            itemRepository.save(new Item("item" + i, 10000, 10));
+        }
+        List<Item> all = itemRepository.findAll();
+
+        //when
+        ItemPage first = itemRepository.findPage(null, null, 2);
+        ItemPage next = itemRepository.findPage(first.getNextCursor(), null, 2);
+        ItemPage last = itemRepository.findPage(next.getNextCursor(), null, 2);
+        ItemPage previous = itemRepository.findPage(null, next.getPreviousCursor(), 2);
+
+        //then
+        assertThat(first.getItems()).containsExactly(all.get(0), all.get(1));
+        assertThat(first.hasPrevious()).isFalse();
+        assertThat(next.getItems()).containsExactly(all.get(2), all.get(3));
+        assertThat(last.getItems()).containsExactly(all.get(4));
+        assertThat(last.hasNext()).isFalse();
+        assertThat(previous.getItems()).containsExactly(all.get(0), all.get(1));
+    }
+
+    @Test
+    void updateItem() {
+        //given
+        Item savedItem = itemRepository.save(new Item("item1", 10000, 10));
+        Long itemId = savedItem.getId();
+
+        //when
+        Item updateParam = new Item("item2", 20000, 30);
+        itemRepository.update(itemId, updateParam);
+
+        Item findItem = itemRepository.findById(itemId);
+
+        //then
+        assertThat(findItem.getItemName()).isEqualTo(updateParam.getItemName());
+        assertThat(findItem.getPrice()).isEqualTo(updateParam.getPrice());
+        assertThat(findItem.getQuantity()).isEqualTo(updateParam.getQuantity());
+        assertThat(findItem.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void updateItemVersionConflict() {
+        //given
+        Item savedItem = itemRepository.save(new Item("item1", 10000, 10));
+        Item staleParam = new Item("item2", 20000, 30);
+        staleParam.setVersion(savedItem.getVersion());
+        itemRepository.update(savedItem.getId(), new Item("item3", 30000, 40));
+
+        //when
+        boolean result = itemRepository.update(savedItem.getId(), staleParam);
+
+        //then
+        assertThat(result).isFalse();
+        assertThat(itemRepository.findById(savedItem.getId()).getItemName()).isEqualTo("item3");
+    }
+
+    @Test
+    void uniqueItemName() {
+        Item itemA = itemRepository.saveUniqueName(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 10000, 10));
+
+        assertThatThrownBy(() -> itemRepository.saveUniqueName(new Item("itemA", 20000, 20)))
+                .isInstanceOf(DuplicateItemNameException.class);
+        assertThatThrownBy(() -> itemRepository.updateUniqueName(itemB.getId(), new Item("itemA", 20000, 20)))
+                .isInstanceOf(DuplicateItemNameException.class);
+        assertThat(itemRepository.findById(itemB.getId()).getItemName()).isEqualTo("itemB");
+
+        assertThat(itemRepository.updateUniqueName(itemA.getId(), new Item("itemC", 20000, 20))).isTrue();
+        assertThat(itemRepository.existsByItemName("itemA")).isFalse();
+        assertThat(itemRepository.existsByItemName("itemC")).isTrue();
+    }
+
+    //이름을 바꿔도 참조하는 상품이 없어진 상품명은 사전에 남지 않는다.
+    @Test
+    void releaseRenamedNames() {
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 10000, 10));
+
+        for (int i = 0; i < 1000; i++) {
+            itemRepository.update(itemA.getId(), new Item("itemA-" + i, 10000, 10));
+        }
+        assertThat(itemRepository.nameDictionarySize()).isEqualTo(2);
+
+        //다른 상품이 참조하는 상품명은 남는다.
+        itemRepository.update(itemA.getId(), new Item("itemB", 10000, 10));
+        itemRepository.update(itemB.getId(), new Item("itemC", 10000, 10));
+        assertThat(itemRepository.nameDictionarySize()).isEqualTo(2);
+        assertThat(itemRepository.findById(itemA.getId()).getItemName()).isEqualTo("itemB");
+        assertThat(itemRepository.findById(itemB.getId()).getItemName()).isEqualTo("itemC");
+    }
+}
@@ -0,0 +1,79 @@
+package hello.itemservice.domain.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ItemCursorTest {
+
+    ItemRepository itemRepository = new MemoryItemRepository();
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void readAllInChunks() {
+        //given
+        for (int i = 0; i < 5; i++) {
+            itemRepository.save(new Item("item" + i, 10000, 10));
+        }
+        AtomicInteger chunks = new AtomicInteger();
+
+        //when
+        ItemCursor cursor = new ItemCursor(itemRepository, null, 2, chunks::incrementAndGet);
+        List<String> names = new ArrayList<>();
+        cursor.forEachRemaining(item -> names.add(item.getItemName()));
+
+        //then 2, 2, 1개씩 세번 읽는다.
+        assertThat(names).containsExactly("item0", "item1", "item2", "item3", "item4");
+        assertThat(chunks.get()).isEqualTo(3);
+        assertThat(cursor.hasNext()).isFalse();
+    }
+
+    @Test
+    void continueAfterLastId() {
+        for (int i = 0; i < 5; i++) {
+            itemRepository.save(new Item("item" + i, 10000, 10));
+        }
+        ItemCursor first = new ItemCursor(itemRepository, null, 2, () -> {});
+        first.next();
+        first.next();
+
+        ItemCursor second = new ItemCursor(itemRepository, first.getLastId(), 2, () -> {});
+
+        assertThat(second.next().getItemName()).isEqualTo("item2");
+    }
+
+    @Test
+    void hasMoreWithoutReadingNextChunk() {
+        for (int i = 0; i < 4; i++) {
+            itemRepository.save(new Item("item" + i, 10000, 10));
+        }
+        AtomicInteger chunks = new AtomicInteger();
+        ItemCursor cursor = new ItemCursor(itemRepository, null, 2, chunks::incrementAndGet);
+
+        cursor.next();
+        cursor.next();
+        assertThat(cursor.hasMore()).isTrue();
+        assertThat(chunks.get()).isEqualTo(1);
+
+        //마지막 페이지의 nextCursor가 null이므로 더 읽지 않아도 끝인 것을 안다.
+        cursor.next();
+        cursor.next();
+        assertThat(cursor.hasMore()).isFalse();
+        assertThat(chunks.get()).isEqualTo(2);
+    }
+
+    @Test
+    void empty() {
+        ItemCursor cursor = new ItemCursor(itemRepository, null, 2, () -> {});
+        assertThat(cursor.hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,194 @@
+package hello.itemservice.domain.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ItemRepositoryConcurrencyTest {
+
+    static final int SAVE_PER_THREAD = 20_000;
+
+    ItemRepository itemRepository = new MemoryItemRepository();
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void concurrentSave() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        //when
+        List<Long> ids = runConcurrently(threads, t -> {
+            List<Long> saved = new ArrayList<>(SAVE_PER_THREAD);
+            for (int i = 0; i < SAVE_PER_THREAD; i++) {
+                saved.add(itemRepository.save(new Item("item-" + t + "-" + i, 10000, 10)).getId());
+            }
+            return saved;
+        });
+
+        //then 중복 id 없이, 유실 없이 모두 저장되어야 한다.
+        Set<Long> uniqueIds = new HashSet<>(ids);
+        assertThat(uniqueIds).hasSize(threads * SAVE_PER_THREAD);
+        assertThat(itemRepository.findAll()).hasSize(threads * SAVE_PER_THREAD);
+    }
+
+    @Test
+    void concurrentUpdateWithSameVersion() throws Exception {
+        //given
+        Item savedItem = itemRepository.save(new Item("item", 10000, 10));
+        Long itemId = savedItem.getId();
+        Long version = savedItem.getVersion();
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+
+        //when 같은 version으로 동시에 수정하면
+        AtomicInteger success = new AtomicInteger();
+        runConcurrently(threads, t -> {
+            Item updateParam = new Item("item-" + t, 20000, t);
+            updateParam.setVersion(version);
+            if (itemRepository.update(itemId, updateParam)) {
+                success.incrementAndGet();
+            }
+            return List.of();
+        });
+
+        //then 하나만 성공하고 나머지는 충돌로 처리된다.
+        assertThat(success.get()).isEqualTo(1);
+        assertThat(itemRepository.findById(itemId).getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void concurrentUpdateWithoutVersion() throws Exception {
+        //given
+        Long itemId = itemRepository.save(new Item("item", 10000, 10)).getId();
+        int threads = Runtime.getRuntime().availableProcessors();
+        int updatePerThread = 1_000;
+
+        //when version 없이 수정하면 유실 없이 모두 반영된다.
+        runConcurrently(threads, t -> {
+            for (int i = 0; i < updatePerThread; i++) {
+                itemRepository.update(itemId, new Item("item-" + t, 20000, i));
+            }
+            return List.of();
+        });
+
+        //then
+        assertThat(itemRepository.findById(itemId).getVersion()).isEqualTo(1L + threads * updatePerThread);
+    }
+
+    @Test
+    void concurrentUpdateKeepsIndex() throws Exception {
+        //given
+        Long itemId = itemRepository.save(new Item("itemX", 10000, 10)).getId();
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+        int updatePerThread = 2_000;
+
+        //when 같은 상품의 가격, 상품명을 두 값 사이에서 동시에 바꾸면
+        runConcurrently(threads, t -> {
+            for (int i = 0; i < updatePerThread; i++) {
+                boolean x = (t + i) % 2 == 0;
+                itemRepository.update(itemId, new Item(x ? "itemX" : "itemY", x ? 10000 : 20000, i));
+            }
+            return List.of();
+        });
+
+        //then 마지막 값으로 검색된다. (인덱스에서 빠지지 않는다.)
+        Item item = itemRepository.findById(itemId);
+        assertThat(itemRepository.search(new ItemSearchCond(null, item.getPrice(), item.getPrice()), 10))
+                .extracting(Item::getId).containsExactly(itemId);
+        assertThat(itemRepository.search(new ItemSearchCond(item.getItemName(), null, null), 10))
+                .extracting(Item::getId).containsExactly(itemId);
+    }
+
+    @Test
+    void concurrentSaveUniqueName() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+
+        //when 같은 상품명을 동시에 저장하면
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger duplicate = new AtomicInteger();
+        runConcurrently(threads, t -> {
+            try {
+                itemRepository.saveUniqueName(new Item("unique", 10000, t));
+                success.incrementAndGet();
+            } catch (DuplicateItemNameException e) {
+                duplicate.incrementAndGet();
+            }
+            return List.of();
+        });
+
+        //then 하나만 저장된다.
+        assertThat(success.get()).isEqualTo(1);
+        assertThat(duplicate.get()).isEqualTo(threads - 1);
+        assertThat(itemRepository.findAll()).hasSize(1);
+    }
+
+    /**
+     * 저장과 조회를 함께 실행해도 저장한 상품을 바로 조회할 수 있고, 모두 저장된다.
+     * 스레드 수에 따른 처리량은 ItemRepositoryBenchmark(save, findById)로 측정한다.
+     */
+    @Test
+    void concurrentSaveAndFindById() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        //when
+        AtomicInteger mismatch = new AtomicInteger();
+        runConcurrently(threads, t -> {
+            for (int i = 0; i < SAVE_PER_THREAD; i++) {
+                String itemName = "item-" + t + "-" + i;
+                Item item = itemRepository.save(new Item(itemName, 10000, 10));
+                Item found = itemRepository.findById(item.getId());
+                if (found == null || !itemName.equals(found.getItemName()) || !item.getVersion().equals(found.getVersion())) {
+                    mismatch.incrementAndGet();
+                }
+            }
+            return List.of();
+        });
+
+        //then
+        assertThat(mismatch.get()).isZero();
+        assertThat(itemRepository.findAll()).hasSize(threads * SAVE_PER_THREAD);
+    }
+
+    private List<Long> runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int threadNo = t;
+                Callable<List<Long>> callable = () -> {
+                    start.await();
+                    return task.run(threadNo);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+
+            List<Long> result = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                result.addAll(future.get());
+            }
+            return result;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    interface ThreadTask {
+        List<Long> run(int threadNo) throws Exception;
+    }
+}
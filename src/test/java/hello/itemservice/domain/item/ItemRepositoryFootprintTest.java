@@ -0,0 +1,60 @@
+package hello.itemservice.domain.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Map 저장소(ItemRepository)와 컬럼 저장소(ColumnarItemRepository)의 메모리 사용량 비교.
+ * System.gc()에 의존하는 측정이고 큰 힙이 필요하므로 ITEM_FOOTPRINT_LARGE=true 일 때만 실행한다.
+ */
+class ItemRepositoryFootprintTest {
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "ITEM_FOOTPRINT_LARGE", matches = "true")
+    void footprint1M() throws InterruptedException {
+        compare(1_000_000);
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "ITEM_FOOTPRINT_LARGE", matches = "true")
+    void footprint10M() throws InterruptedException {
+        compare(10_000_000);
+    }
+
+    private void compare(int itemCount) throws InterruptedException {
+        //상품명 String은 두 저장소 모두 같은 크기를 차지하므로 미리 만들어 두고 측정에서 제외한다.
+        String[] names = new String[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            names[i] = "item" + i;
+        }
+
+        long mapBytes = measure(new MemoryItemRepository(), names);
+        long columnarBytes = measure(new ColumnarItemRepository(), names);
+
+        System.out.printf("items = %,d, map = %,d bytes (%d bytes/item), columnar = %,d bytes (%d bytes/item)%n",
+                itemCount, mapBytes, mapBytes / itemCount, columnarBytes, columnarBytes / itemCount);
+        assertThat(columnarBytes).isLessThan(mapBytes);
+    }
+
+    private long measure(ItemRepository itemRepository, String[] names) throws InterruptedException {
+        itemRepository.clearStore();
+        long before = usedMemory();
+        for (int i = 0; i < names.length; i++) {
+            itemRepository.save(new Item(names[i], 1000 + i % 1_000_000, i % 10_000));
+        }
+        long after = usedMemory();
+        itemRepository.clearStore();
+        return after - before;
+    }
+
+    private long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
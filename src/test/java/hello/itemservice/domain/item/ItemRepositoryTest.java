@@ -9,7 +9,7 @@ import static org.assertj.core.api.Assertions.*;
 
 class ItemRepositoryTest {
 
-    ItemRepository itemRepository = new ItemRepository();
+    ItemRepository itemRepository = new MemoryItemRepository();
 
     @AfterEach
     void afterEach() {
@@ -65,4 +65,228 @@ class ItemRepositoryTest {
         assertThat(findItem.getPrice()).isEqualTo(updateParam.getPrice());
         assertThat(findItem.getQuantity()).isEqualTo(updateParam.getQuantity());
     }
+
+    @Test
+    void updateItemVersionConflict() {
+        //given
+        Item savedItem = itemRepository.save(new Item("item1", 10000, 10));
+        Long itemId = savedItem.getId();
+        Long version = savedItem.getVersion();
+
+        Item firstParam = new Item("item2", 20000, 30);
+        firstParam.setVersion(version);
+        Item secondParam = new Item("item3", 30000, 40);
+        secondParam.setVersion(version);
+
+        //when
+        boolean first = itemRepository.update(itemId, firstParam);
+        boolean second = itemRepository.update(itemId, secondParam);
+
+        //then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        Item findItem = itemRepository.findById(itemId);
+        assertThat(findItem.getItemName()).isEqualTo("item2");
+        assertThat(findItem.getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void findPage() {
+        //given
+        for (int i = 1; i <= 5; i++) {
+            itemRepository.save(new Item("item" + i, 10000, 10));
+        }
+        List<Item> all = itemRepository.findAll();
+        Long secondId = all.get(1).getId();
+        Long fourthId = all.get(3).getId();
+
+        //when
+        ItemPage first = itemRepository.findPage(null, null, 2);
+        ItemPage next = itemRepository.findPage(first.getNextCursor(), null, 2);
+        ItemPage previous = itemRepository.findPage(null, next.getPreviousCursor(), 2);
+
+        //then
+        assertThat(first.getItems()).containsExactly(all.get(0), all.get(1));
+        assertThat(first.hasPrevious()).isFalse();
+        assertThat(first.getNextCursor()).isEqualTo(secondId);
+
+        assertThat(next.getItems()).containsExactly(all.get(2), all.get(3));
+        assertThat(next.hasPrevious()).isTrue();
+        assertThat(next.getNextCursor()).isEqualTo(fourthId);
+
+        assertThat(previous.getItems()).containsExactly(all.get(0), all.get(1));
+    }
+
+    @Test
+    void search() {
+        //given
+        Item itemA = itemRepository.save(new Item("apple", 1000, 10));
+        Item itemB = itemRepository.save(new Item("apricot", 5000, 10));
+        Item itemC = itemRepository.save(new Item("banana", 3000, 10));
+
+        //when
+        List<Item> byPrice = itemRepository.search(new ItemSearchCond(null, 2000, 5000), 10);
+        List<Item> byName = itemRepository.search(new ItemSearchCond("ap", null, null), 10);
+        List<Item> byBoth = itemRepository.search(new ItemSearchCond("ap", null, 3000), 10);
+
+        //then
+        assertThat(byPrice).containsExactly(itemC, itemB);
+        assertThat(byName).containsExactly(itemA, itemB);
+        assertThat(byBoth).containsExactly(itemA);
+    }
+
+    @Test
+    void searchInvertedPriceRange() {
+        itemRepository.save(new Item("apple", 3000, 10));
+
+        //최소 가격이 최대 가격보다 크면 예외 없이 빈 결과
+        assertThat(itemRepository.search(new ItemSearchCond(null, 5000, 1000), 10)).isEmpty();
+        assertThat(itemRepository.search(new ItemSearchCond("ap", 5000, 1000), 10)).isEmpty();
+    }
+
+    @Test
+    void searchAfterUpdate() {
+        //given
+        Item item = itemRepository.save(new Item("apple", 1000, 10));
+
+        //when
+        itemRepository.update(item.getId(), new Item("banana", 9000, 10));
+
+        //then
+        assertThat(itemRepository.search(new ItemSearchCond("ap", null, null), 10)).isEmpty();
+        assertThat(itemRepository.search(new ItemSearchCond(null, null, 2000), 10)).isEmpty();
+        assertThat(itemRepository.search(new ItemSearchCond("ba", 9000, 9000), 10))
+                .extracting(Item::getId).containsExactly(item.getId());
+    }
+
+    @Test
+    void findAllSnapshot() {
+        //given
+        itemRepository.save(new Item("item1", 10000, 10));
+
+        //when
+        List<Item> first = itemRepository.findAll();
+        List<Item> second = itemRepository.findAll();
+        itemRepository.save(new Item("item2", 20000, 20));
+        List<Item> afterSave = itemRepository.findAll();
+
+        //then 변경이 없으면 같은 목록을 함께 사용하고, 변경되면 새 목록을 만든다.
+        assertThat(second).isSameAs(first);
+        assertThat(first).hasSize(1);
+        assertThat(afterSave).hasSize(2);
+        assertThatThrownBy(() -> first.add(new Item()))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void findPageSharesSnapshot() {
+        //given
+        MemoryItemRepository memoryRepository = (MemoryItemRepository) itemRepository;
+        Item item1 = itemRepository.save(new Item("item1", 10000, 10));
+        itemRepository.save(new Item("item2", 20000, 20));
+
+        //when 변경 없이 두번 조회하면
+        ItemPage first = itemRepository.findPage(null, null, 2);
+        ItemSnapshot snapshot = memoryRepository.publishedSnapshot();
+        ItemPage second = itemRepository.findPage(item1.getId() - 1, null, 2);
+
+        //then 같은 snapshot의 같은 Item을 복사 없이 함께 읽는다.
+        assertThat(snapshot.getVersion()).isEqualTo(itemRepository.modificationCount());
+        assertThat(memoryRepository.publishedSnapshot()).isSameAs(snapshot);
+        assertThat(second.getItems().get(0)).isSameAs(first.getItems().get(0));
+        assertThatThrownBy(() -> first.getItems().add(new Item()))
+                .isInstanceOf(UnsupportedOperationException.class);
+
+        //변경 후 첫 조회에서만 새 snapshot을 만든다.
+        itemRepository.save(new Item("item3", 30000, 30));
+        itemRepository.findPage(null, null, 2);
+        ItemSnapshot afterSave = memoryRepository.publishedSnapshot();
+        assertThat(afterSave).isNotSameAs(snapshot);
+        itemRepository.findPage(null, null, 2);
+        assertThat(memoryRepository.publishedSnapshot()).isSameAs(afterSave);
+    }
+
+    @Test
+    void snapshotIsNotChangedByUpdate() {
+        //given
+        Item savedItem = itemRepository.save(new Item("item1", 10000, 10));
+        List<Item> before = itemRepository.findAll();
+
+        //when
+        itemRepository.update(savedItem.getId(), new Item("item2", 20000, 30));
+        savedItem.setPrice(1); //저장 후 원본을 수정해도 저장소에는 영향이 없다.
+
+        //then
+        assertThat(before.get(0).getItemName()).isEqualTo("item1");
+        assertThat(before.get(0).getPrice()).isEqualTo(10000);
+        assertThat(itemRepository.findAll().get(0).getItemName()).isEqualTo("item2");
+        assertThat(itemRepository.findById(savedItem.getId()).getPrice()).isEqualTo(20000);
+    }
+
+    @Test
+    void uniqueItemName() {
+        //given
+        Item itemA = itemRepository.saveUniqueName(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.saveUniqueName(new Item("itemB", 10000, 10));
+
+        //then
+        assertThat(itemRepository.existsByItemName("itemA")).isTrue();
+        assertThatThrownBy(() -> itemRepository.saveUniqueName(new Item("itemA", 20000, 20)))
+                .isInstanceOf(DuplicateItemNameException.class);
+        assertThatThrownBy(() -> itemRepository.updateUniqueName(itemB.getId(), new Item("itemA", 20000, 20)))
+                .isInstanceOf(DuplicateItemNameException.class);
+
+        //이름을 바꾸지 않는 수정, 바꾼 뒤의 이전 이름은 사용할 수 있다.
+        assertThat(itemRepository.updateUniqueName(itemA.getId(), new Item("itemA", 20000, 20))).isTrue();
+        assertThat(itemRepository.updateUniqueName(itemA.getId(), new Item("itemC", 20000, 20))).isTrue();
+        assertThat(itemRepository.existsByItemName("itemA")).isFalse();
+        assertThat(itemRepository.saveUniqueName(new Item("itemA", 30000, 30)).getId()).isNotNull();
+    }
+
+    @Test
+    void duplicateNameWithSave() {
+        //save는 중복을 허용하고, 모두 지워질 때까지 이름이 남아 있다.
+        Item item1 = itemRepository.save(new Item("itemA", 10000, 10));
+        itemRepository.save(new Item("itemA", 10000, 10));
+
+        itemRepository.update(item1.getId(), new Item("itemB", 10000, 10));
+
+        assertThat(itemRepository.existsByItemName("itemA")).isTrue();
+        assertThat(itemRepository.existsByItemName("itemB")).isTrue();
+    }
+
+    @Test
+    void saveAllUniqueName() {
+        //given
+        itemRepository.save(new Item("itemA", 10000, 10));
+
+        //when 저장된 이름, 목록 안에서 겹치는 이름이 있으면
+        List<Integer> duplicates = itemRepository.saveAllUniqueName(List.of(
+                new Item("itemA", 10000, 10), new Item("itemB", 10000, 10), new Item("itemB", 10000, 10)));
+
+        //then 하나도 저장하지 않고, 선점했던 이름도 돌려놓는다.
+        assertThat(duplicates).containsExactly(0, 2);
+        assertThat(itemRepository.findAll()).hasSize(1);
+        assertThat(itemRepository.existsByItemName("itemB")).isFalse();
+
+        assertThat(itemRepository.saveAllUniqueName(List.of(new Item("itemB", 10000, 10), new Item("itemC", 10000, 10))))
+                .isEmpty();
+        assertThat(itemRepository.findAll()).extracting(Item::getItemName).containsExactly("itemA", "itemB", "itemC");
+    }
+
+    @Test
+    void modificationCount() {
+        long count = itemRepository.modificationCount();
+
+        Item item = itemRepository.save(new Item("item1", 10000, 10));
+        assertThat(itemRepository.modificationCount()).isGreaterThan(count);
+
+        count = itemRepository.modificationCount();
+        itemRepository.findById(item.getId());
+        itemRepository.findAll();
+        assertThat(itemRepository.modificationCount()).isEqualTo(count);
+
+        itemRepository.update(item.getId(), new Item("item2", 20000, 20));
+        assertThat(itemRepository.modificationCount()).isGreaterThan(count);
+    }
 }
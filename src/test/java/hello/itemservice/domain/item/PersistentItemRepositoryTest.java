@@ -0,0 +1,208 @@
+package hello.itemservice.domain.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PersistentItemRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    PersistentItemRepository itemRepository;
+
+    @AfterEach
+    void afterEach() {
+        if (itemRepository != null) {
+            itemRepository.clearStore();
+            itemRepository.close();
+        }
+    }
+
+    @Test
+    void recoverFromWal() {
+        //given
+        itemRepository = new PersistentItemRepository(dir, false, 10_000);
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 20));
+        itemRepository.update(itemA.getId(), new Item("itemA2", 30000, 30));
+
+        //when 메모리를 비우고 다시 시작하면
+        restart();
+
+        //then
+        Item findItemA = itemRepository.findById(itemA.getId());
+        assertThat(findItemA.getItemName()).isEqualTo("itemA2");
+        assertThat(findItemA.getPrice()).isEqualTo(30000);
+        assertThat(findItemA.getVersion()).isEqualTo(2L);
+        assertThat(itemRepository.findById(itemB.getId())).isEqualTo(itemB);
+
+        //복구 후 새로 저장하는 상품은 id가 겹치지 않는다.
+        Item itemC = itemRepository.save(new Item("itemC", 10000, 10));
+        assertThat(itemC.getId()).isGreaterThan(itemB.getId());
+    }
+
+    @Test
+    void recoverFromSnapshotAndWal() {
+        //given
+        itemRepository = new PersistentItemRepository(dir, false, 10_000);
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        itemRepository.snapshot();
+        Item itemB = itemRepository.save(new Item("itemB", null, null));
+
+        //when
+        restart();
+
+        //then
+        assertThat(itemRepository.findById(itemA.getId())).isEqualTo(itemA);
+        assertThat(itemRepository.findById(itemB.getId())).isEqualTo(itemB);
+        assertThat(itemRepository.search(new ItemSearchCond("item", null, null), 10)).hasSize(2);
+    }
+
+    @Test
+    void discardTornRecord() throws IOException {
+        //given
+        itemRepository = new PersistentItemRepository(dir, false, 10_000);
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 20));
+        itemRepository.close();
+
+        //when 마지막 기록이 쓰다가 중단된 것처럼 잘라낸다.
+        Path wal = lastWal();
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        restart();
+
+        //then
+        assertThat(itemRepository.findById(itemA.getId())).isEqualTo(itemA);
+        assertThat(itemRepository.findById(itemB.getId())).isNull();
+    }
+
+    @Test
+    void doNotApplyWhenJournalFails() {
+        //given
+        itemRepository = new PersistentItemRepository(dir, false, 10_000);
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+
+        //when WAL에 기록할 수 없으면
+        itemRepository.close();
+        assertThatThrownBy(() -> itemRepository.save(new Item("itemB", 20000, 20)))
+                .isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> itemRepository.update(itemA.getId(), new Item("itemA2", 30000, 30)))
+                .isInstanceOf(UncheckedIOException.class);
+
+        //then 메모리에도 반영되지 않는다.
+        assertThat(itemRepository.findById(itemA.getId())).isEqualTo(itemA);
+        assertThat(itemRepository.existsByItemName("itemB")).isFalse();
+        assertThat(itemRepository.existsByItemName("itemA2")).isFalse();
+        assertThat(itemRepository.search(new ItemSearchCond("item", null, null), 10)).containsExactly(itemA);
+    }
+
+    @Test
+    void skipCorruptRecord() throws IOException {
+        //given
+        itemRepository = new PersistentItemRepository(dir, false, 10_000);
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 20));
+        Item itemC = itemRepository.save(new Item("itemC", 30000, 30));
+        itemRepository.close();
+
+        //when 중간 기록(itemB)의 상품명 한 글자를 바꾼다. 기록 하나는 헤더 8 + payload 34 byte
+        Path wal = lastWal();
+        long size = Files.size(wal);
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 42 + 8 + 8 + 8 + 4);
+        }
+        restart();
+
+        //then 손상된 기록만 건너뛰고 이후 기록은 복구한다.
+        assertThat(itemRepository.findById(itemA.getId())).isEqualTo(itemA);
+        assertThat(itemRepository.findById(itemB.getId())).isNull();
+        assertThat(itemRepository.findById(itemC.getId())).isEqualTo(itemC);
+        assertThat(Files.size(wal)).isEqualTo(size);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.filter(path -> path.getFileName().toString().endsWith(".corrupt"))).hasSize(1);
+        }
+    }
+
+    @Test
+    void discardSnapshotTakenBeforeReset() {
+        //given
+        Path journalDir = dir.resolve("journal");
+        Item item = new Item("itemA", 10000, 10);
+        item.setId(1L);
+        item.setVersion(1L);
+        try (ItemJournal journal = new ItemJournal(journalDir, false)) {
+            journal.recover(recovered -> {
+            });
+            journal.append(item);
+            long coveredSegmentNo = journal.rotate();
+
+            //when snapshot을 기록하는 사이 reset 되면
+            journal.reset();
+            journal.snapshot(List.of(item), coveredSegmentNo);
+        }
+
+        //then 이전 저장소의 snapshot은 남지 않는다.
+        List<Item> recovered = new ArrayList<>();
+        try (ItemJournal journal = new ItemJournal(journalDir, false)) {
+            journal.recover(recovered::add);
+        }
+        assertThat(recovered).isEmpty();
+    }
+
+    @Test
+    void generationAndModificationCountSurviveRestart() {
+        //given
+        itemRepository = new PersistentItemRepository(dir, false, 10_000);
+        long generation = itemRepository.generation();
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        itemRepository.update(itemA.getId(), new Item("itemA2", 20000, 10));
+        long count = itemRepository.modificationCount();
+
+        //when
+        restart();
+
+        //then 같은 세대, 같은 변경 번호에서 이어진다.
+        assertThat(itemRepository.generation()).isEqualTo(generation);
+        assertThat(itemRepository.modificationCount()).isEqualTo(count);
+        itemRepository.save(new Item("itemB", 10000, 10));
+        assertThat(itemRepository.modificationCount()).isGreaterThan(count);
+
+        //비우면 세대가 바뀌고, 재시작해도 유지된다.
+        itemRepository.clearStore();
+        long clearedGeneration = itemRepository.generation();
+        assertThat(clearedGeneration).isNotEqualTo(generation);
+        restart();
+        assertThat(itemRepository.generation()).isEqualTo(clearedGeneration);
+    }
+
+    private void restart() {
+        itemRepository.close();
+        new MemoryItemRepository().clearStore(); //메모리(static store)만 비운다.
+        itemRepository = new PersistentItemRepository(dir, false, 10_000);
+    }
+
+    private Path lastWal() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("wal-"))
+                    .filter(path -> path.toFile().length() > 0)
+                    .reduce((first, second) -> second)
+                    .orElseThrow();
+        }
+    }
+}
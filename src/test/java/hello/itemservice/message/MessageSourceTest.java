@@ -5,8 +5,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.MessageSource;
 import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -50,4 +60,64 @@ public class MessageSourceTest {
     void enLang() {
         assertThat(ms.getMessage("hello", null, Locale.ENGLISH)).isEqualTo("hello");
     }
-}
\ No newline at end of file
+
+    @Test
+    void precompiledMessageSource() {
+        assertThat(ms).isInstanceOf(PrecompiledMessageSource.class);
+    }
+
+    /**
+     * 모든 메시지 코드에 대해 스프링 기본 ResourceBundleMessageSource와 같은 결과를 만드는지 비교한다.
+     */
+    @Test
+    void sameAsResourceBundleMessageSource() throws IOException {
+        ResourceBundleMessageSource bundleMessageSource = resourceBundleMessageSource();
+        Object[] args = {"Spring", 1000, 1000000L, -1234567};
+
+        for (Locale locale : List.of(Locale.KOREA, Locale.ENGLISH, Locale.US)) {
+            for (String code : allCodes()) {
+                assertThat(ms.getMessage(code, null, locale))
+                        .as("code=%s, locale=%s", code, locale)
+                        .isEqualTo(bundleMessageSource.getMessage(code, null, locale));
+                assertThat(ms.getMessage(code, args, locale))
+                        .as("code=%s, locale=%s", code, locale)
+                        .isEqualTo(bundleMessageSource.getMessage(code, args, locale));
+            }
+        }
+    }
+
+    //Bean Validation 오류처럼 인자에 다른 메시지 코드(필드명)가 있고, 기본 메시지가 있는 경우
+    @Test
+    void resolvableArgumentsAndDefaultMessage() {
+        ResourceBundleMessageSource bundleMessageSource = resourceBundleMessageSource();
+        DefaultMessageSourceResolvable rangeError = new DefaultMessageSourceResolvable(
+                new String[]{"Range.item.price", "Range"},
+                new Object[]{new DefaultMessageSourceResolvable(new String[]{"item.price", "price"}, "price"), 1000000L, 1000L},
+                "{2} ~ {1} 사이여야 합니다");
+        DefaultMessageSourceResolvable unknownError = new DefaultMessageSourceResolvable(
+                new String[]{"unknown"}, new Object[]{1000000L}, "'{0}' {0} 이하");
+
+        for (Locale locale : List.of(Locale.KOREA, Locale.ENGLISH)) {
+            assertThat(ms.getMessage(rangeError, locale)).isEqualTo(bundleMessageSource.getMessage(rangeError, locale));
+            assertThat(ms.getMessage(unknownError, locale)).isEqualTo(bundleMessageSource.getMessage(unknownError, locale));
+        }
+        assertThat(ms.getMessage(rangeError, Locale.KOREA)).isEqualTo("price, 1,000 ~ 1,000,000 허용");
+    }
+
+    private ResourceBundleMessageSource resourceBundleMessageSource() {
+        ResourceBundleMessageSource bundleMessageSource = new ResourceBundleMessageSource();
+        bundleMessageSource.setBasenames("messages", "errors");
+        bundleMessageSource.setDefaultEncoding("UTF-8");
+        bundleMessageSource.setFallbackToSystemLocale(false);
+        return bundleMessageSource;
+    }
+
+    private Set<String> allCodes() throws IOException {
+        Set<String> codes = new LinkedHashSet<>();
+        for (String filename : List.of("messages.properties", "messages_en.properties", "errors.properties")) {
+            codes.addAll(PropertiesLoaderUtils.loadProperties(
+                    new EncodedResource(new ClassPathResource(filename), StandardCharsets.UTF_8)).stringPropertyNames());
+        }
+        return codes;
+    }
+}
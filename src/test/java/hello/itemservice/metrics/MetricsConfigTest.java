@@ -0,0 +1,66 @@
+package hello.itemservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsConfigTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void recordHotPathTimers() throws Exception {
+        mockMvc.perform(get("/validation/v3/items"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/validation/v3/items/add")
+                        .param("itemName", "")
+                        .param("price", "10")
+                        .param("quantity", "1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/validation/v2/items/add")
+                        .param("itemName", "")
+                        .param("price", "10")
+                        .param("quantity", "1"))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.find("item.repository").tag("method", "findPage").timer())
+                .isNotNull()
+                .satisfies(timer -> assertThat(timer.count()).isPositive());
+        assertThat(meterRegistry.find("item.validation").tag("target", "Item").timer()).isNotNull();
+        assertThat(meterRegistry.find("item.validator").tag("method", "validate").timer()).isNotNull();
+        assertThat(meterRegistry.find("item.view.render").tag("view", "validation/v3/items").timer()).isNotNull();
+        assertThat(meterRegistry.find("item.view.render").tag("view", "validation/v3/addForm").timer()).isNotNull();
+    }
+
+    //API 등록은 직접 검증하지만 같은 검증기를 사용하므로 검증 시간이 기록된다.
+    @Test
+    void recordApiValidation() throws Exception {
+        mockMvc.perform(post("/validation/api/items/add")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"\",\"price\":10000,\"quantity\":10}"))
+                .andExpect(status().isOk());
+        long count = meterRegistry.get("item.validation").tag("target", "ItemSaveForm").timer().count();
+
+        mockMvc.perform(post("/validation/api/items/add")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"\",\"price\":10000,\"quantity\":10}"))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("item.validation").tag("target", "ItemSaveForm").timer().count())
+                .isEqualTo(count + 1);
+    }
+}
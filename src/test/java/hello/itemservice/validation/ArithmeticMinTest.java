@@ -0,0 +1,85 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import hello.itemservice.web.validation.form.ItemUpdateForm;
+import org.hibernate.validator.HibernateValidator;
+import org.hibernate.validator.HibernateValidatorConfiguration;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ArithmeticMinTest {
+
+    Validator validator = validator();
+
+    //폼 객체의 범위, 복합 룰은 ItemRules가 기본 설정값으로 등록한다.
+    private static Validator validator() {
+        HibernateValidatorConfiguration configuration = Validation.byProvider(HibernateValidator.class).configure();
+        new ItemRules(new ItemRuleProperties()).addConstraintMappings(configuration);
+        return configuration.buildValidatorFactory().getValidator();
+    }
+
+    @Test
+    void totalPriceMin() {
+        ItemSaveForm form = saveForm(1000, 9);
+
+        Set<ConstraintViolation<ItemSaveForm>> violations = validator.validate(form);
+
+        assertThat(violations).hasSize(1);
+        ConstraintViolation<ItemSaveForm> violation = violations.iterator().next();
+        assertThat(violation.getConstraintDescriptor().getAnnotation()).isInstanceOf(ArithmeticMin.class);
+        assertThat(violation.getPropertyPath().toString()).isEmpty(); //오브젝트 오류
+        assertThat(violation.getMessage()).contains("10,000", "9,000");
+    }
+
+    @Test
+    void totalPriceSuccess() {
+        assertThat(validator.validate(saveForm(1000, 10))).isEmpty();
+    }
+
+    //int로 계산하면 넘치는 1,000,000 * 9,999 도 long으로 계산한다.
+    @Test
+    void noOverflow() {
+        assertThat(validator.validate(saveForm(1000000, 9999))).isEmpty();
+    }
+
+    //값이 없으면 필드 검증(@NotNull)만 실패한다.
+    @Test
+    void nullOperand() {
+        ItemUpdateForm form = new ItemUpdateForm();
+        form.setId(1L);
+        form.setItemName("itemA");
+        form.setPrice(1000);
+
+        assertThat(validator.validate(form)).isEmpty();
+    }
+
+    @Test
+    void expression() {
+        ArithmeticExpression expression = ArithmeticExpression.parse("(price - 100) * -quantity + 500");
+        ItemSaveForm form = saveForm(1100, 10);
+
+        assertThat(expression.compile(ItemSaveForm.class).evaluate(form)).isEqualTo(-9500);
+    }
+
+    @Test
+    void invalidExpression() {
+        assertThatThrownBy(() -> ArithmeticExpression.parse("price *"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ArithmeticExpression.parse("itemName * 2").compile(ItemSaveForm.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ItemSaveForm saveForm(int price, int quantity) {
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName("itemA");
+        form.setPrice(price);
+        form.setQuantity(quantity);
+        return form;
+    }
+}
@@ -0,0 +1,92 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.domain.item.Item__;
+import hello.itemservice.domain.item.SaveCheck;
+import hello.itemservice.domain.item.UpdateCheck;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import hello.itemservice.web.validation.form.ItemUpdateForm;
+import org.hibernate.validator.HibernateValidator;
+import org.hibernate.validator.HibernateValidatorConfiguration;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 필수 값 -> 범위 -> 복합 룰 순서로 검증하고, 앞 단계에서 실패하면 멈추는지 확인한다.
+ */
+class GroupSequenceTest {
+
+    Validator validator = validator();
+
+    //폼 객체의 범위, 복합 룰은 ItemRules가 기본 설정값으로 등록한다.
+    private static Validator validator() {
+        HibernateValidatorConfiguration configuration = Validation.byProvider(HibernateValidator.class).configure();
+        new ItemRules(new ItemRuleProperties()).addConstraintMappings(configuration);
+        return configuration.buildValidatorFactory().getValidator();
+    }
+
+    @Test
+    void saveFormStopsAtRequired() {
+        //이름이 없으면 범위를 벗어난 가격, 수량과 복합 룰은 검사하지 않는다.
+        assertThat(constraints(validator.validate(saveForm(" ", 10, 10000)))).containsExactly("NotBlank");
+    }
+
+    @Test
+    void saveFormStopsAtBounds() {
+        //가격 10 * 수량 1 은 복합 룰도 실패하지만 범위 단계에서 멈춘다.
+        assertThat(constraints(validator.validate(saveForm("itemA", 10, 1)))).containsExactly("Range");
+    }
+
+    @Test
+    void saveFormTotal() {
+        assertThat(constraints(validator.validate(saveForm("itemA", 1000, 9)))).containsExactly("ArithmeticMin");
+        assertThat(validator.validate(saveForm("itemA", 1000, 10))).isEmpty();
+    }
+
+    @Test
+    void updateForm() {
+        ItemUpdateForm form = new ItemUpdateForm();
+        form.setItemName("itemA");
+        form.setPrice(10);
+        form.setQuantity(1);
+
+        assertThat(constraints(validator.validate(form))).containsExactly("NotNull");
+
+        form.setId(1L);
+        assertThat(constraints(validator.validate(form))).containsExactly("Range");
+    }
+
+    @Test
+    void itemGroups() {
+        Item__ item = new Item__("itemA", 1000, 10000);
+
+        //등록은 수량 최대값을 검사하므로 범위 단계에서 멈춘다.
+        assertThat(constraints(validator.validate(item, SaveCheck.class))).containsExactly("Max");
+        //수정은 id가 필수이다.
+        assertThat(constraints(validator.validate(item, UpdateCheck.class))).containsExactly("NotNull");
+
+        item.setId(1L);
+        item.setQuantity(1);
+        assertThat(constraints(validator.validate(item, UpdateCheck.class))).containsExactly("ArithmeticMin");
+    }
+
+    private ItemSaveForm saveForm(String itemName, int price, int quantity) {
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName(itemName);
+        form.setPrice(price);
+        form.setQuantity(quantity);
+        return form;
+    }
+
+    private Set<String> constraints(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,104 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.domain.item.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ItemRulesTest {
+
+    ItemRules itemRules = new ItemRules(new ItemRuleProperties());
+
+    @Test
+    void validate() {
+        Item item = new Item(" ", 100, 10000);
+        BindingResult bindingResult = new BeanPropertyBindingResult(item, "item");
+
+        boolean valid = itemRules.validate(item.getItemName(), item.getPrice(), item.getQuantity(), bindingResult);
+
+        assertThat(valid).isFalse();
+        assertThat(bindingResult.getFieldError("itemName").getCode()).isEqualTo("required");
+        assertThat(bindingResult.getFieldError("price").getCode()).isEqualTo("range");
+        assertThat(bindingResult.getFieldError("price").getArguments()).containsExactly("1,000", "1,000,000");
+        assertThat(bindingResult.getFieldError("quantity").getCode()).isEqualTo("max");
+        assertThat(bindingResult.getFieldError("quantity").getArguments()).containsExactly("9,999");
+        assertThat(bindingResult.getGlobalErrors()).isEmpty(); //100 * 10000 = 1,000,000
+    }
+
+    @Test
+    void validateSuccess() {
+        Item item = new Item("itemA", 10000, 10);
+        BindingResult bindingResult = new BeanPropertyBindingResult(item, "item");
+
+        assertThat(itemRules.validate(item.getItemName(), item.getPrice(), item.getQuantity(), bindingResult)).isTrue();
+        assertThat(bindingResult.hasErrors()).isFalse();
+    }
+
+    @Test
+    void reuseMessageArguments() {
+        BindingResult bindingResult1 = new BeanPropertyBindingResult(new Item(), "item");
+        BindingResult bindingResult2 = new BeanPropertyBindingResult(new Item(), "item");
+
+        itemRules.validate("itemA", 1, 1, bindingResult1);
+        itemRules.validate("itemA", 1, 1, bindingResult2);
+
+        //메시지 인자는 요청마다 새로 만들지 않는다.
+        assertThat(bindingResult1.getFieldError("price").getArguments())
+                .isSameAs(bindingResult2.getFieldError("price").getArguments());
+    }
+
+    @Test
+    void totalPriceMin() {
+        BindingResult bindingResult = new BeanPropertyBindingResult(new Item(), "item");
+
+        assertThat(itemRules.validateTotalPrice(1000, 9, bindingResult)).isFalse();
+        assertThat(bindingResult.getGlobalError().getCode()).isEqualTo("totalPriceMin");
+        assertThat(bindingResult.getGlobalError().getArguments()).containsExactly("10,000", 9000L);
+    }
+
+    @Test
+    void totalPriceOverflow() {
+        BindingResult bindingResult = new BeanPropertyBindingResult(new Item(), "item");
+
+        //int 범위를 넘는 곱도 long으로 계산하므로 통과한다.
+        assertThat(itemRules.validateTotalPrice(1000000, 9999, bindingResult)).isTrue();
+        assertThat(bindingResult.hasErrors()).isFalse();
+    }
+
+    //필드 룰에서 실패하면 복합 룰은 검사하지 않는다.
+    @Test
+    void skipTotalPriceWhenFieldInvalid() {
+        BindingResult bindingResult = new BeanPropertyBindingResult(new Item(), "item");
+
+        assertThat(itemRules.validate(" ", 1000, 1, bindingResult)).isFalse();
+        assertThat(bindingResult.getFieldErrorCount()).isEqualTo(1);
+        assertThat(bindingResult.getGlobalErrors()).isEmpty();
+    }
+
+    @Test
+    void failFast() {
+        ItemRuleProperties properties = new ItemRuleProperties();
+        properties.setFailFast(true);
+        ItemRules failFastRules = new ItemRules(properties);
+        BindingResult bindingResult = new BeanPropertyBindingResult(new Item(), "item");
+
+        failFastRules.validate(" ", 100, 10000, bindingResult);
+
+        assertThat(bindingResult.getErrorCount()).isEqualTo(1);
+        assertThat(bindingResult.getFieldError().getField()).isEqualTo("itemName");
+    }
+
+    @Test
+    void configuredLimits() {
+        ItemRuleProperties properties = new ItemRuleProperties();
+        properties.setPriceMax(5000);
+        ItemRules configuredRules = new ItemRules(properties);
+        BindingResult bindingResult = new BeanPropertyBindingResult(new Item(), "item");
+
+        configuredRules.validate("itemA", 6000, 10, bindingResult);
+
+        assertThat(bindingResult.getFieldError("price").getArguments()).containsExactly("1,000", "5,000");
+    }
+}
@@ -48,4 +48,34 @@ public class MessageCodesResolverTest {
         assertThat(messageCodes).containsExactly("required.item.itemName", "required.itemName",
                 "required.java.lang.String", "required");
     }
+
+    @Test
+    void cachingMessageCodesResolver() {
+        CachingMessageCodesResolver cachingResolver = new CachingMessageCodesResolver(10);
+
+        String[] fieldCodes = cachingResolver.resolveMessageCodes("required", "item", "itemName", String.class);
+        String[] objectCodes = cachingResolver.resolveMessageCodes("required", "item");
+
+        //DefaultMessageCodesResolver와 같은 코드를 만들고, 같은 요청이 반복되면 이전에 만든 배열을 그대로 반환한다.
+        assertThat(fieldCodes).containsExactly(codesResolver.resolveMessageCodes("required", "item", "itemName", String.class));
+        assertThat(objectCodes).containsExactly("required.item", "required");
+        assertThat(cachingResolver.resolveMessageCodes("required", "item", "itemName", String.class)).isSameAs(fieldCodes);
+        assertThat(cachingResolver.resolveMessageCodes("required", "item")).isSameAs(objectCodes);
+        assertThat(cachingResolver.resolveMessageCodes("required", "item", "price", Integer.class))
+                .containsExactly("required.item.price", "required.price", "required.java.lang.Integer", "required");
+    }
+
+    @Test
+    void cachingMessageCodesResolverMaximumSize() {
+        CachingMessageCodesResolver cachingResolver = new CachingMessageCodesResolver(2);
+
+        for (int i = 0; i < 10; i++) {
+            cachingResolver.resolveMessageCodes("required", "items", "items[" + i + "].itemName", String.class);
+        }
+
+        //가득 차면 더 보관하지 않지만 코드는 계속 만들어준다.
+        assertThat(cachingResolver.size()).isEqualTo(2);
+        assertThat(cachingResolver.resolveMessageCodes("required", "items", "items[9].itemName", String.class))
+                .startsWith("required.items.items[9].itemName");
+    }
 }
@@ -0,0 +1,63 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import hello.itemservice.web.validation.form.ItemUpdateForm;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+//ItemRepository가 주입되어야 하므로 스프링이 만든 Validator를 사용한다.
+@SpringBootTest
+class UniqueItemNameTest {
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Test
+    void saveForm() {
+        itemRepository.saveUniqueName(new Item("uniqueSave", 10000, 10));
+
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName("uniqueSave");
+        form.setPrice(10000);
+        form.setQuantity(10);
+
+        Set<ConstraintViolation<ItemSaveForm>> violations = validator.validate(form);
+        assertThat(violations).hasSize(1);
+        ConstraintViolation<ItemSaveForm> violation = violations.iterator().next();
+        assertThat(violation.getConstraintDescriptor().getAnnotation()).isInstanceOf(UniqueItemName.class);
+        assertThat(violation.getPropertyPath().toString()).isEqualTo("itemName");
+
+        form.setItemName("uniqueSave2");
+        assertThat(validator.validate(form)).isEmpty();
+    }
+
+    @Test
+    void updateForm() {
+        Item item = itemRepository.saveUniqueName(new Item("uniqueUpdate", 10000, 10));
+        itemRepository.saveUniqueName(new Item("uniqueOther", 10000, 10));
+
+        ItemUpdateForm form = new ItemUpdateForm();
+        form.setId(item.getId());
+        form.setItemName("uniqueUpdate");
+        form.setPrice(10000);
+        form.setQuantity(10);
+
+        //자기 자신의 이름은 통과
+        assertThat(validator.validate(form)).isEmpty();
+
+        form.setItemName("uniqueOther");
+        assertThat(validator.validate(form)).hasSize(1);
+    }
+}
@@ -0,0 +1,50 @@
+package hello.itemservice.warmup;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.Item__;
+import hello.itemservice.domain.item.SaveCheck;
+import hello.itemservice.domain.item.UpdateCheck;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import hello.itemservice.web.validation.form.ItemUpdateForm;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.validation.groups.Default;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "item.warmup.enabled=true")
+class WarmUpRunnerTest {
+
+    @Autowired
+    WarmUpRunner warmUpRunner;
+
+    @Test
+    void warmUp() {
+        WarmUpResult result = warmUpRunner.warmUp();
+
+        assertThat(result.getValidationTargets())
+                .containsKeys(Item.class, ItemSaveForm.class, ItemUpdateForm.class, Item__.class);
+        assertThat(result.getValidationTargets().get(Item.class))
+                .contains(List.of(SaveCheck.class), List.of(UpdateCheck.class));
+        assertThat(result.getValidationTargets().get(ItemSaveForm.class)).containsExactly(List.of(Default.class));
+        //컨트롤러에서 사용하지 않는 타입은 사용된 모든 group으로 준비한다.
+        assertThat(result.getValidationTargets().get(Item__.class))
+                .contains(List.of(Default.class), List.of(SaveCheck.class), List.of(UpdateCheck.class));
+
+        //컨트롤러가 반환하는 뷰 이름으로 찾는다. redirect:는 제외된다.
+        List<String> views = new ArrayList<>();
+        for (int version = 1; version <= 5; version++) {
+            for (String view : List.of("addForm", "editForm", "item", "items")) {
+                views.add("validation/v" + version + "/" + view);
+            }
+        }
+        assertThat(result.getTemplates()).containsAll(views);
+        assertThat(result.getTemplates()).noneMatch(template -> template.startsWith("redirect:"));
+        assertThat(result.getTemplateParseNanos()).containsKeys(views.toArray(new String[0]));
+        assertThat(result.getTemplateParseNanos().values()).allMatch(nanos -> nanos >= 0);
+    }
+}
@@ -0,0 +1,56 @@
+package hello.itemservice.web.validation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void expireOldestKey() {
+        IdempotencyCache cache = new IdempotencyCache(2, 600);
+        cache.putIfAbsent("key1", "request1");
+        cache.complete("key1", "response1");
+        cache.putIfAbsent("key2", "request2");
+        cache.complete("key2", "response2");
+
+        //먼저 들어온 결과가 유지된다.
+        assertThat(cache.putIfAbsent("key2", "request2").getResponse()).isEqualTo("response2");
+        cache.complete("key2", "other");
+        assertThat(cache.get("key2").getResponse()).isEqualTo("response2");
+
+        cache.putIfAbsent("key3", "request3");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("key1")).isNull();
+        assertThat(cache.get("key3").matches("request3")).isTrue();
+    }
+
+    @Test
+    void pendingEntry() {
+        IdempotencyCache cache = new IdempotencyCache(10, 600);
+
+        //처음 넣은 요청만 처리하고, 처리 중에 들어온 요청은 처리 중 결과를 받는다.
+        assertThat(cache.putIfAbsent("key", "request")).isNull();
+        IdempotencyCache.Entry pending = cache.putIfAbsent("key", "request");
+        assertThat(pending.isPending()).isTrue();
+
+        cache.complete("key", "response");
+        assertThat(pending.isPending()).isFalse();
+        assertThat(cache.putIfAbsent("key", "request").getResponse()).isEqualTo("response");
+    }
+
+    @Test
+    void removePendingEntryOnFailure() {
+        IdempotencyCache cache = new IdempotencyCache(10, 600);
+        cache.putIfAbsent("key", "request");
+
+        //처리에 실패하면 다음 재시도가 다시 처리한다.
+        cache.remove("key");
+        assertThat(cache.putIfAbsent("key", "request")).isNull();
+
+        //처리가 끝난 결과는 지우지 않는다.
+        cache.complete("key", "response");
+        cache.remove("key");
+        assertThat(cache.get("key").getResponse()).isEqualTo("response");
+    }
+}
@@ -0,0 +1,57 @@
+package hello.itemservice.web.validation;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * clearStore 후 id를 1부터 다시 사용하는 저장소(columnar)로, 같은 id, version이 다시 나와도 이전 ETag로 304가 되지 않는지 확인한다.
+ * (메모리 저장소를 재시작한 경우와 같다.)
+ */
+@SpringBootTest(properties = "item.repository.type=columnar")
+@AutoConfigureMockMvc
+class ItemETagGenerationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void item() throws Exception {
+        itemRepository.clearStore();
+        Item before = itemRepository.save(new Item("before", 10000, 10));
+        String url = "/validation/v3/items/" + before.getId();
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when 비운 뒤 같은 id, version으로 다른 상품이 저장되면
+        itemRepository.clearStore();
+        Item after = itemRepository.save(new Item("after", 20000, 20));
+        assertThat(after.getId()).isEqualTo(before.getId());
+        assertThat(after.getVersion()).isEqualTo(before.getVersion());
+
+        //then
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("after")));
+    }
+}
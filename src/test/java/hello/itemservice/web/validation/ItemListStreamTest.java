@@ -0,0 +1,86 @@
+package hello.itemservice.web.validation;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemCursor;
+import hello.itemservice.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "item.list.stream.chunk-size=3")
+@AutoConfigureMockMvc
+class ItemListStreamTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    WebApplicationContext context;
+
+    @Test
+    void streamItems() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            itemRepository.save(new Item("stream" + i, 10000, 10));
+        }
+
+        String html = mockMvc.perform(get("/validation/v5/items").param("stream", ""))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //chunk 크기와 관계없이 전체 상품이 그려지고, 페이지 이동 버튼은 없다.
+        for (int i = 0; i < 10; i++) {
+            assertThat(html).contains(">stream" + i + "<");
+        }
+        assertThat(html).doesNotContain("after=");
+    }
+
+    @Test
+    void flushEveryChunk() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            itemRepository.save(new Item("flush" + i, 10000, 10));
+        }
+
+        //flushBuffer가 호출될 때마다 그때까지 커밋되었는지 기록한다.
+        List<Boolean> flushes = new ArrayList<>();
+        Filter recordFlush = (request, response, chain) -> chain.doFilter(request,
+                new HttpServletResponseWrapper((HttpServletResponse) response) {
+                    @Override
+                    public void flushBuffer() throws IOException {
+                        super.flushBuffer();
+                        flushes.add(isCommitted());
+                    }
+                });
+        MockMvc flushMockMvc = MockMvcBuilders.webAppContextSetup(context).addFilter(recordFlush).build();
+
+        String html = flushMockMvc.perform(get("/validation/v5/items").param("stream", ""))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(html).contains(">flush9<");
+
+        //같은 저장소를 chunk 크기(3)로 다시 읽어 chunk 수를 센다. 응답은 chunk마다 한번씩 내보낸다.
+        int[] chunks = new int[1];
+        ItemCursor cursor = new ItemCursor(itemRepository, null, 3, () -> chunks[0]++);
+        cursor.forEachRemaining(item -> {
+        });
+        assertThat(chunks[0]).isGreaterThanOrEqualTo(4);
+        assertThat(flushes).hasSize(chunks[0]).containsOnly(true);
+    }
+}
@@ -0,0 +1,101 @@
+package hello.itemservice.web.validation;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemRowCacheTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    ItemRowCache itemRowCache;
+
+    @Test
+    void reuseRows() throws Exception {
+        Item item = itemRepository.save(new Item("rowCache", 10000, 10));
+        String url = listFrom(item);
+
+        String first = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(first).contains("/validation/v5/items/" + item.getId(), ">rowCache<");
+
+        //두 번째 목록은 보관된 행을 그대로 사용한다.
+        long hitCount = itemRowCache.hitCount();
+        long missCount = itemRowCache.missCount();
+        String second = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(second).isEqualTo(first);
+        assertThat(itemRowCache.hitCount()).isGreaterThan(hitCount);
+        assertThat(itemRowCache.missCount()).isEqualTo(missCount);
+    }
+
+    @Test
+    void renderAgainAfterUpdate() throws Exception {
+        Item item = itemRepository.save(new Item("rowBefore", 10000, 10));
+        String url = listFrom(item);
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        //수정 폼으로 수정하면 해당 상품의 행만 다시 그린다.
+        mockMvc.perform(post("/validation/v5/items/{itemId}/edit", item.getId())
+                        .param("id", String.valueOf(item.getId()))
+                        .param("itemName", "rowAfter")
+                        .param("price", "20000")
+                        .param("quantity", "10")
+                        .param("version", String.valueOf(item.getVersion())))
+                .andExpect(status().is3xxRedirection());
+
+        long missCount = itemRowCache.missCount();
+        String content = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(content).contains(">rowAfter<").doesNotContain(">rowBefore<");
+        assertThat(itemRowCache.missCount()).isEqualTo(missCount + 1);
+
+        //저장소를 직접 수정해도 version이 바뀌므로 이전 행을 사용하지 않는다.
+        Item updateParam = new Item("rowDirect", 30000, 10);
+        updateParam.setVersion(itemRepository.findById(item.getId()).getVersion());
+        itemRepository.update(item.getId(), updateParam);
+        assertThat(mockMvc.perform(get(url))
+                .andReturn().getResponse().getContentAsString()).contains(">rowDirect<");
+    }
+
+    @Test
+    void doNotReuseRowsWhenUrlIsRewritten() throws Exception {
+        Item item = itemRepository.save(new Item("rowRewrite", 10000, 10));
+        String url = listFrom(item);
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        //세션 id를 URL로 받은 요청은 링크가 달라질 수 있으므로 보관된 행을 사용하지 않는다.
+        long hitCount = itemRowCache.hitCount();
+        long missCount = itemRowCache.missCount();
+        mockMvc.perform(get(url).with(request -> {
+                    request.setRequestedSessionIdFromURL(true);
+                    return request;
+                }))
+                .andExpect(status().isOk());
+        assertThat(itemRowCache.hitCount()).isEqualTo(hitCount);
+        assertThat(itemRowCache.missCount()).isGreaterThan(missCount);
+    }
+
+    //다른 테스트에서 저장한 상품이 많아도 item이 첫 행이 되도록 한다.
+    private static String listFrom(Item item) {
+        return "/validation/v5/items?after=" + (item.getId() - 1);
+    }
+}
@@ -0,0 +1,342 @@
+package hello.itemservice.web.validation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.domain.item.ItemSearchCond;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validator;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ValidationApiControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    ItemBatchValidator itemBatchValidator;
+
+    @Autowired
+    IdempotencyCache idempotencyCache;
+
+    @Test
+    void addItemErrors() throws Exception {
+        mockMvc.perform(post("/validation/api/items/add")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .locale(Locale.KOREA)
+                        .content("{\"itemName\":\"\",\"price\":10000,\"quantity\":10}"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"field\":\"itemName\",\"code\":\"NotBlank\",\"message\":\"itemName 공백X\"}]", true));
+    }
+
+    @Test
+    void addItemWithIdempotencyKey() throws Exception {
+        String body = "{\"itemName\":\"\",\"price\":10000,\"quantity\":10}";
+        String first = mockMvc.perform(post("/validation/api/items/add")
+                        .header("Idempotency-Key", "add-errors")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long hitCount = idempotencyCache.hitCount();
+
+        //같은 키, 같은 내용으로 재시도하면 보관된 결과로 응답한다.
+        mockMvc.perform(post("/validation/api/items/add")
+                        .header("Idempotency-Key", "add-errors")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().json(first, true));
+        assertThat(idempotencyCache.hitCount()).isEqualTo(hitCount + 1);
+
+        //같은 키로 다른 내용을 보내면 422
+        mockMvc.perform(post("/validation/api/items/add")
+                        .header("Idempotency-Key", "add-errors")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"itemA\",\"price\":10000,\"quantity\":10}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void addItemWhileSameKeyIsPending() throws Exception {
+        //같은 키의 첫 요청이 아직 처리 중이면 검증하지 않고 409로 응답한다.
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName("pending");
+        form.setPrice(10000);
+        form.setQuantity(10);
+        assertThat(idempotencyCache.putIfAbsent("add-pending", form)).isNull();
+
+        mockMvc.perform(post("/validation/api/items/add")
+                        .header("Idempotency-Key", "add-pending")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"pending\",\"price\":10000,\"quantity\":10}"))
+                .andExpect(status().isConflict());
+
+        //처리가 끝나면 보관된 결과로 응답한다.
+        idempotencyCache.complete("add-pending", ResponseEntity.ok(form));
+        mockMvc.perform(post("/validation/api/items/add")
+                        .header("Idempotency-Key", "add-pending")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"pending\",\"price\":10000,\"quantity\":10}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemName").value("pending"));
+    }
+
+    /**
+     * 같은 검증 오류를 FieldError 그대로 직렬화할 때보다 ErrorsJsonSerializer로 기록할 때 응답이 작다.
+     * 직렬화 시간은 ErrorPayloadBenchmark로 비교한다.
+     */
+    @Test
+    void compareErrorPayload() throws Exception {
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName("");
+        form.setPrice(10);
+        form.setQuantity(10000);
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(form, "itemSaveForm");
+        new SpringValidatorAdapter(validator).validate(form, bindingResult);
+
+        byte[] fullPayload = objectMapper.writeValueAsBytes(bindingResult.getAllErrors());
+        byte[] compactPayload = objectMapper.writeValueAsBytes(bindingResult);
+        assertThat(compactPayload.length).isLessThan(fullPayload.length);
+    }
+
+    @Test
+    void bulkAddItemsNdjson() throws Exception {
+        String body = "{\"itemName\":\"bulkA\",\"price\":10000,\"quantity\":10}\n"
+                + "{\"itemName\":\"\",\"price\":10000,\"quantity\":10}\n"
+                + "{\"itemName\":\"bulkC\",\"price\":\"abc\",\"quantity\":10}\n"
+                + "{\"itemName\":\"bulkD\",\"price\":1000,\"quantity\":1}\n"
+                + "{\"itemName\":\"bulkE\",\"price\":20000,\"quantity\":20}\n";
+
+        String result = mockMvc.perform(post("/validation/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = result.split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).contains("\"index\":1", "\"field\":\"itemName\"", "\"code\":\"NotBlank\"");
+        assertThat(lines[1]).contains("\"index\":2", "\"code\":\"typeMismatch\"");
+        assertThat(lines[2]).contains("\"index\":3", "\"code\":\"ArithmeticMin\"");
+        assertThat(lines[3]).isEqualTo("{\"saved\":2,\"failed\":3}");
+        assertThat(itemRepository.search(new ItemSearchCond("bulk", null, null), 10))
+                .extracting("itemName").containsExactlyInAnyOrder("bulkA", "bulkE");
+    }
+
+    @Test
+    void bulkAddItemsWithDuplicateNames() throws Exception {
+        itemRepository.save(new Item("bulkDupSaved", 10000, 10));
+        String body = "{\"itemName\":\"bulkDup\",\"price\":10000,\"quantity\":10}\n"
+                + "{\"itemName\":\"bulkDup\",\"price\":20000,\"quantity\":10}\n"
+                + "{\"itemName\":\"bulkDupOther\",\"price\":10000,\"quantity\":10}\n";
+
+        String result = mockMvc.perform(post("/validation/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //요청 안에서 겹치는 상품명은 뒤의 상품만 실패하고, 나머지는 저장된다.
+        String[] lines = result.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"index\":1", "\"field\":\"itemName\"", "\"code\":\"UniqueItemName\"");
+        assertThat(lines[1]).isEqualTo("{\"saved\":2,\"failed\":1}");
+        assertThat(itemRepository.search(new ItemSearchCond("bulkDup", null, null), 10))
+                .extracting("itemName").containsExactlyInAnyOrder("bulkDupSaved", "bulkDup", "bulkDupOther");
+    }
+
+    @Test
+    void bulkAddItemsJsonArray() throws Exception {
+        String body = "[{\"itemName\":\"arrayA\",\"price\":10000,\"quantity\":10},"
+                + "{\"itemName\":\"arrayB\",\"price\":10000,\"quantity\":10}]";
+
+        mockMvc.perform(post("/validation/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"saved\":2,\"failed\":0}"));
+    }
+
+    @Test
+    void validateItems() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            if (i == 10) {
+                body.append("{\"itemName\":\"\",\"price\":10000,\"quantity\":10}");
+            } else if (i == 500) {
+                body.append("{\"itemName\":\"validate\",\"price\":1000,\"quantity\":1}");
+            } else {
+                body.append("{\"itemName\":\"validate\",\"price\":10000,\"quantity\":10}");
+            }
+        }
+        body.append(']');
+
+        String result = mockMvc.perform(post("/validation/api/items/validate")
+                        .param("save", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //실패한 상품만 index 순서대로 기록하고, 하나라도 실패하면 저장하지 않는다.
+        assertThat(result).startsWith("{\"valid\":998,\"invalid\":2,\"saved\":0,\"results\":[{\"index\":10,");
+        assertThat(result).contains("\"field\":\"itemName\"", "{\"index\":500,", "\"code\":\"ArithmeticMin\"");
+        assertThat(itemRepository.search(new ItemSearchCond("validate", null, null), 10)).isEmpty();
+    }
+
+    //errors.properties에 코드가 없는 오류(NotNull)는 검증 스레드에서 만든 기본 메시지를 요청 locale로 사용한다.
+    @Test
+    void validateItemsWithRequestLocale() throws Exception {
+        String body = "[{\"itemName\":\"localeA\",\"price\":null,\"quantity\":10}]";
+
+        mockMvc.perform(post("/validation/api/items/validate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .locale(Locale.ENGLISH)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].errors[0].code").value("NotNull"))
+                .andExpect(jsonPath("$.results[0].errors[0].message").value("must not be null"));
+        mockMvc.perform(post("/validation/api/items/validate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .locale(Locale.KOREA)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].errors[0].message").value(not("must not be null")));
+    }
+
+    @Test
+    void validateAndSaveItemsWithDuplicateNames() throws Exception {
+        String body = "[{\"itemName\":\"batchDupA\",\"price\":10000,\"quantity\":10},"
+                + "{\"itemName\":\"batchDupB\",\"price\":10000,\"quantity\":10},"
+                + "{\"itemName\":\"batchDupA\",\"price\":20000,\"quantity\":10}]";
+
+        //상품마다의 @UniqueItemName 검증은 통과하지만, 저장하면서 겹치는 상품명을 찾아 하나도 저장하지 않는다.
+        mockMvc.perform(post("/validation/api/items/validate")
+                        .param("save", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.saved").value(0))
+                .andExpect(jsonPath("$.results[0].index").value(2))
+                .andExpect(jsonPath("$.results[0].errors[0].field").value("itemName"))
+                .andExpect(jsonPath("$.results[0].errors[0].code").value("UniqueItemName"));
+        assertThat(itemRepository.search(new ItemSearchCond("batchDup", null, null), 10)).isEmpty();
+    }
+
+    @Test
+    void validateAndSaveItems() throws Exception {
+        String body = "[{\"itemName\":\"checkedA\",\"price\":10000,\"quantity\":10},"
+                + "{\"itemName\":\"checkedB\",\"price\":10000,\"quantity\":10}]";
+
+        mockMvc.perform(post("/validation/api/items/validate")
+                        .param("save", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"valid\":2,\"invalid\":0,\"saved\":2,\"results\":[]}"));
+        assertThat(itemRepository.search(new ItemSearchCond("checked", null, null), 10))
+                .extracting("itemName").containsExactlyInAnyOrder("checkedA", "checkedB");
+    }
+
+    @Test
+    void validateTooManyItems() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i <= itemBatchValidator.getMaximumSize(); i++) {
+            body.append(i == 0 ? "" : ",").append("{\"itemName\":\"tooMany\",\"price\":10000,\"quantity\":10}");
+        }
+        body.append(']');
+
+        mockMvc.perform(post("/validation/api/items/validate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.toString()))
+                .andExpect(status().isPayloadTooLarge());
+
+        //배열이 아니면 400
+        mockMvc.perform(post("/validation/api/items/validate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"notArray\",\"price\":10000,\"quantity\":10}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchInvertedPriceRange() throws Exception {
+        mockMvc.perform(get("/validation/api/items/search")
+                        .param("minPrice", "5000")
+                        .param("maxPrice", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void itemsWithCursor() throws Exception {
+        Item itemA = itemRepository.save(new Item("exportA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("exportB", 20000, 20));
+        Item itemC = itemRepository.save(new Item("exportC", 30000, 30));
+
+        mockMvc.perform(get("/validation/api/items")
+                        .param("after", String.valueOf(itemA.getId() - 1))
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items[*].itemName").value(contains("exportA", "exportB")))
+                .andExpect(jsonPath("$.size").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(itemB.getId()));
+
+        //nextCursor를 after로 이어서 조회한다. 마지막 페이지의 nextCursor는 null
+        mockMvc.perform(get("/validation/api/items")
+                        .param("after", String.valueOf(itemB.getId()))
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].itemName").value(contains("exportC")))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+
+        mockMvc.perform(get("/validation/api/items").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void item() throws Exception {
+        Item item = itemRepository.save(new Item("exportItem", 10000, 10));
+
+        mockMvc.perform(get("/validation/api/items/{itemId}", item.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(item.getId()))
+                .andExpect(jsonPath("$.itemName").value("exportItem"))
+                .andExpect(jsonPath("$.price").value(10000));
+
+        mockMvc.perform(get("/validation/api/items/{itemId}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+}
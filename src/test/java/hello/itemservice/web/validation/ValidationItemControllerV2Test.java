@@ -0,0 +1,44 @@
+package hello.itemservice.web.validation;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ValidationItemControllerV2Test {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Test
+    void editWithTypeMismatch() throws Exception {
+        Item item = itemRepository.save(new Item("v2Edit", 10000, 10));
+
+        //숫자 자리에 문자가 오면 수정하지 않고 수정 폼을 다시 보여준다.
+        mockMvc.perform(post("/validation/v2/items/{itemId}/edit", item.getId())
+                        .param("id", String.valueOf(item.getId()))
+                        .param("itemName", "v2Edited")
+                        .param("price", "abc")
+                        .param("quantity", "10")
+                        .param("version", String.valueOf(item.getVersion())))
+                .andExpect(status().isOk())
+                .andExpect(view().name("validation/v2/editForm"));
+
+        Item findItem = itemRepository.findById(item.getId());
+        assertThat(findItem.getItemName()).isEqualTo("v2Edit");
+        assertThat(findItem.getPrice()).isEqualTo(10000);
+        assertThat(findItem.getVersion()).isEqualTo(item.getVersion());
+    }
+}